@@ -0,0 +1,163 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The AgentRunner class runs {@link BigTwoAgent}s with a hard deadline on every decision, so that a slow
+ * or faulty agent never holds up a table.
+ *
+ * <p>Decisions run on a bounded pool of threads with a bounded queue. If an agent misses its deadline,
+ * throws, returns a move that is not legal, or cannot be queued because the queue is full, the runner
+ * plays the fallback move instead: a pass if the seat may pass, otherwise the lowest legal play. An agent
+ * missing its deadline is interrupted and its decision leaves the queue if it had not started. An agent
+ * that ignores the interruption keeps its thread, so a table is never held up, but decisions may miss
+ * their deadlines in the queue once every thread is kept that way. The number of fallbacks of each kind
+ * is counted.</p>
+ *
+ * @author Liu Yantong
+ */
+public class AgentRunner {
+	private final ThreadPoolExecutor executor;
+	private final LongAdder decisions = new LongAdder();
+	private final LongAdder timeouts = new LongAdder();
+	private final LongAdder failures = new LongAdder();
+	private final LongAdder rejections = new LongAdder();
+
+	/**
+	 * Creates a runner.
+	 *
+	 * @param numOfThreads the number of decisions run at the same time
+	 * @param queueCapacity the number of decisions that may wait for a thread
+	 * @throws IllegalArgumentException if the number of threads or the capacity is not positive
+	 */
+	public AgentRunner(int numOfThreads, int queueCapacity) {
+		this.executor = new ThreadPoolExecutor(numOfThreads, numOfThreads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<Runnable>(queueCapacity), runnable -> {
+					Thread thread = new Thread(runnable, "agent");
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * Asks an agent for its move and waits for it until the deadline.
+	 *
+	 * @param agent the agent
+	 * @param view the view of the game from the seat of the agent, whose turn it is
+	 * @param random the random number generator the agent draws from; it is split, not shared with the agent
+	 * @param deadlineMillis the time the agent has, in milliseconds
+	 * @return the indices of the cards to play among the cards of the seat, as expected by
+	 *         {@link BigTwo#makeMove(int, int[])}, or null to pass
+	 */
+	public int[] decide(BigTwoAgent agent, BigTwoView view, SplittableRandom random, long deadlineMillis) {
+		return view.toCardIdx(decideMove(agent, view, random, deadlineMillis));
+	}
+
+	/**
+	 * Asks an agent for its move and waits for it until the deadline.
+	 *
+	 * @param agent the agent
+	 * @param view the view of the game from the seat of the agent, whose turn it is
+	 * @param random the random number generator the agent draws from; it is split, not shared with the agent
+	 * @param deadlineMillis the time the agent has, in milliseconds
+	 * @return the mask of the cards to play, or 0 to pass
+	 */
+	public long decideMove(BigTwoAgent agent, BigTwoView view, SplittableRandom random, long deadlineMillis) {
+		decisions.increment();
+		SplittableRandom agentRandom = random.split();
+		Future<Long> future;
+		try {
+			future = executor.submit(() -> agent.chooseMove(view,
+					view.getLegalMoves(new LegalMoveGenerator(view.getRules())), agentRandom));
+		}
+		catch (RejectedExecutionException e) {
+			rejections.increment();
+			return fallbackMove(view);
+		}
+		try {
+			long move = future.get(deadlineMillis, TimeUnit.MILLISECONDS);
+			if (view.isLegal(move)) {
+				return move;
+			}
+			failures.increment();
+		}
+		catch (TimeoutException e) {
+			// a decision still waiting in the queue leaves it, so that it does not take a thread later
+			future.cancel(true);
+			executor.purge();
+			timeouts.increment();
+		}
+		catch (ExecutionException e) {
+			failures.increment();
+		}
+		catch (InterruptedException e) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			timeouts.increment();
+		}
+		return fallbackMove(view);
+	}
+
+	/**
+	 * Returns the move played for an agent that failed to decide: a pass if the seat may pass,
+	 * otherwise the lowest legal play.
+	 *
+	 * @param view the view of the game from the seat of the agent
+	 * @return the mask of the cards to play, or 0 to pass
+	 */
+	public static long fallbackMove(BigTwoView view) {
+		if (view.canPass()) {
+			return 0L;
+		}
+		return view.getLegalMoves(new LegalMoveGenerator(view.getRules())).next();
+	}
+
+	/**
+	 * Returns the number of decisions asked for.
+	 *
+	 * @return the number of decisions
+	 */
+	public long getDecisions() {
+		return decisions.sum();
+	}
+
+	/**
+	 * Returns the number of decisions that missed their deadline.
+	 *
+	 * @return the number of timeouts
+	 */
+	public long getTimeouts() {
+		return timeouts.sum();
+	}
+
+	/**
+	 * Returns the number of decisions where the agent threw or returned a move that is not legal.
+	 *
+	 * @return the number of failures
+	 */
+	public long getFailures() {
+		return failures.sum();
+	}
+
+	/**
+	 * Returns the number of decisions that could not be queued because the runner was full.
+	 *
+	 * @return the number of rejections
+	 */
+	public long getRejections() {
+		return rejections.sum();
+	}
+
+	/**
+	 * Stops the threads of the runner, interrupting the agents still deciding.
+	 */
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+}
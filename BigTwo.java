@@ -1,6 +1,6 @@
 import java.util.ArrayList;
-
-import javax.swing.JOptionPane;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * The BigTwo class implements the game of Big Two. It manages players, the deck of cards, and the game logic.
@@ -9,38 +9,101 @@ import javax.swing.JOptionPane;
  * determining the end of the game. It also integrates with a UI
  * class to provide a interface for the game.</p>
  * 
+ * <p>The rules are run by a {@link BigTwoEngine}. The GUI attaches to the engine to show the moves,
+ * and this class attaches to it to tell the server when a game is over. A {@link BigTwoEventLog}
+ * records the game, so that the table can be put back in an earlier state.</p>
+ * 
+ * <p>When a game is over, its end is reviewed: from the first position with at most
+ * {@link #REVIEW_CARDS} cards left, an {@link EndgameSolver} finds out whether this client's
+ * player could have forced a win, and the GUI prints the winning line or the refutation.
+ * The review runs on a background thread after this client has told the server it is ready,
+ * so neither the next game nor the GUI waits for it.</p>
+ * 
+ * <p>With auto pass on, this client passes for its player as soon as it is their turn and
+ * no hand they hold beats the last hand on the table, without waiting for the Pass button.</p>
+ * 
  * @author Liu Yantong
  */
 public class BigTwo {
-	private int numOfPlayers;
+	/**
+	 * The number of cards left in the hands of the players at which the end of a game is reviewed.
+	 */
+	public static final int REVIEW_CARDS = 16;
+	
+	/**
+	 * The number of positions the review of a game may visit.
+	 */
+	private static final long REVIEW_NODES = 1000000L;
+	
 	private Deck deck;
-	private ArrayList<CardGamePlayer> playerList;
-	private ArrayList<Hand> handsOnTable;
-	private int currentPlayerIdx;
+	private BigTwoEngine engine;
 	private BigTwoGUI ui;
 	private BigTwoClient gameClient;
+	private CardTracker tracker;
+	private BigTwoEventLog eventLog;
+	// the first position of the current game with at most REVIEW_CARDS cards left, null before it
+	private BigTwoState endgame;
+	// whether to pass when the player of this client cannot beat the last hand
+	private boolean autoPass;
+	// whether a pass has been sent for the current turn of the player of this client
+	private boolean autoPassed;
+	private LegalMoveGenerator generator;
+	// runs the endgame reviews, one at a time
+	private final ExecutorService reviewer = Executors.newSingleThreadExecutor(runnable -> {
+		Thread thread = new Thread(runnable, "endgame-review");
+		thread.setDaemon(true);
+		return thread;
+	});
 
 	/**
-	 * Construct a BigTwo game, initialing the playerList, handsOnTable, deck and UI.
+	 * Construct a BigTwo game, initialing the engine, deck and UI.
 	 */
 	public BigTwo(){
-		this.playerList = new ArrayList<CardGamePlayer>();
-		this.handsOnTable = new ArrayList<Hand>();
+		this.engine = new BigTwoEngine();
 		this.deck = new BigTwoDeck();
-		CardGamePlayer p0 = new CardGamePlayer();
-		CardGamePlayer p1 = new CardGamePlayer();
-		CardGamePlayer p2 = new CardGamePlayer();
-		CardGamePlayer p3 = new CardGamePlayer();
-		this.playerList.add(p0);
-		this.playerList.add(p1);
-		this.playerList.add(p2);
-		this.playerList.add(p3);
-		this.numOfPlayers = 4;
+		this.eventLog = new BigTwoEventLog(engine);
 		
 		this.ui = new BigTwoGUI(this);
+		engine.addListener(ui);
+		engine.addListener(new BigTwoListener() {
+			@Override
+			public void gameStarted(int firstPlayerIdx) {
+				endgame = null;
+				tracker.setSeat(getClientIdx());
+			}
+			
+			@Override
+			public void turnChanged(int playerIdx) {
+				if (endgame == null && cardsLeft() <= REVIEW_CARDS) {
+					endgame = new BigTwoState(engine);
+				}
+				autoPassed = false;
+				autoPass(playerIdx);
+			}
+			
+			@Override
+			public void gameEnded(int winnerIdx) {
+				// ready for the next game
+				CardGameMessage newMsg = new CardGameMessage(CardGameMessage.READY, -1, null);
+				gameClient.sendMessage(newMsg);
+				
+				reviewEndgame();
+			}
+		});
+		// the tracker follows the events after this class has set its seat
+		tracker = new CardTracker(engine, -1);
 		gameClient = new BigTwoClient(this, this.ui);
 	}
 	
+	/**
+	 * Get the engine running the rules of the game.
+	 * 
+	 * @return the engine of the game
+	 */
+	public BigTwoEngine getEngine() {
+		return this.engine;
+	}
+	
 	/**
 	 * Get the GUI of the game.
 	 * 
@@ -50,6 +113,24 @@ public class BigTwo {
 		return this.ui;
 	}
 	
+	/**
+	 * Get the tracker of the cards the player of this client has not seen.
+	 * 
+	 * @return the card tracker of the player
+	 */
+	public CardTracker getTracker() {
+		return this.tracker;
+	}
+	
+	/**
+	 * Get the log of the events of the current game.
+	 * 
+	 * @return the event log of the game
+	 */
+	public BigTwoEventLog getEventLog() {
+		return this.eventLog;
+	}
+	
 	/**
 	 * Get the Client of the player
 	 * 
@@ -59,13 +140,53 @@ public class BigTwo {
 		return this.gameClient;
 	}
 	
+	/**
+	 * Checks if this client passes automatically when its player cannot beat the last hand.
+	 * 
+	 * @return true if auto pass is on
+	 */
+	public boolean isAutoPass() {
+		return autoPass;
+	}
+	
+	/**
+	 * Turns auto pass on or off. When it is turned on during the turn of the player of this
+	 * client, the player passes at once if they cannot beat the last hand.
+	 * 
+	 * @param autoPass true to pass automatically when no hand beats the last hand
+	 */
+	public void setAutoPass(boolean autoPass) {
+		this.autoPass = autoPass;
+		if (!endOfGame() && engine.getCurrentPlayerIdx() == getClientIdx()) {
+			autoPass(getClientIdx());
+		}
+	}
+	
+	/**
+	 * Get the rules of the game.
+	 * 
+	 * @return the rules hands are classified and compared by
+	 */
+	public BigTwoRules getRules() {
+		return engine.getRules();
+	}
+	
+	/**
+	 * Set the rules of the game. The rules should only be changed between games.
+	 * 
+	 * @param rules the rules hands are classified and compared by
+	 */
+	public void setRules(BigTwoRules rules) {
+		engine.setRules(rules);
+	}
+	
 	/**
 	 * Get the number of players in the game.
 	 * 
 	 * @return the number of players in the game
 	 */
 	public int getNumOfPlayers(){
-		return this.numOfPlayers;
+		return BigTwoEngine.NUM_OF_PLAYERS;
 	}
 	
 	/**
@@ -83,16 +204,25 @@ public class BigTwo {
 	 * @return the list of players
 	 */
 	public ArrayList<CardGamePlayer> getPlayerList(){
-		return this.playerList;
+		return engine.getPlayerList();
 	}
 	
 	/**
-	 * Get the hands currently on the table.
+	 * Get the hands currently on the table, built from the trick log of the engine.
 	 * 
-	 * @return the hands currently on the table
+	 * @return a new list of the hands played in the game
 	 */
 	public ArrayList<Hand> getHandsOnTable(){
-		return this.handsOnTable;
+		return engine.getHandsOnTable();
+	}
+	
+	/**
+	 * Get the last hand on the table.
+	 * 
+	 * @return the last hand played, or null if the table is empty
+	 */
+	public Hand getLastHand(){
+		return engine.getLastHand();
 	}
 	
 	/**
@@ -101,7 +231,7 @@ public class BigTwo {
 	 * @return the index of the current player
 	 */
 	public int getCurrentPlayerIdx(){
-		return this.currentPlayerIdx;
+		return engine.getCurrentPlayerIdx();
 	}
 	
 	/**
@@ -110,7 +240,7 @@ public class BigTwo {
 	 * @param playerIdx index of the current player
 	 */
 	public void setCurrentPlayerIdx(int playerIdx) {
-		this.currentPlayerIdx = playerIdx;
+		engine.setCurrentPlayerIdx(playerIdx);
 	}
 	
 	/**
@@ -119,7 +249,7 @@ public class BigTwo {
 	 * @param handsOnTable hands on table
 	 */
 	public void setHandsOnTable(ArrayList<Hand> handsOnTable) {
-		this.handsOnTable = handsOnTable;
+		engine.setHandsOnTable(handsOnTable);
 	}
 	
 	
@@ -143,35 +273,8 @@ public class BigTwo {
 	 * @param deck the deck to be used for the game
 	 */
 	public void start(Deck deck){
-		// remove all the cards from the players
-		for (int i = 0; i < numOfPlayers; i++) {
-			playerList.get(i).removeAllCards();
-		}
-		
-		// remove all the cards from the table
-		handsOnTable = new ArrayList<Hand>();
-		
-		// distribute the cards to the players
-//		deck.initialize();
-//		deck.shuffle();
-		int d3_playerIndex = 0;
-		for (int i = 0; i < 52; i++) {
-			playerList.get(i % 4).addCard(deck.getCard(i));
-			if (deck.getCard(i).getSuit() == 0 && deck.getCard(i).getRank() == 2) {
-				d3_playerIndex = i % 4;
-			}
-		}
-		
-		// sort cards in hand
-		for (int i = 0; i < 4; i++) {
-			playerList.get(i).sortCardsInHand();
-		}
-		
-		// set both the currentPlayerIdx of the BigTwo object and the activePlayer of the BigTwoUI object
-		// to the index of the player who holds the Three of Diamonds
-		currentPlayerIdx = d3_playerIndex;
-		ui.setActivePlayer(d3_playerIndex);
-		ui.printMsg(getPlayerList().get(currentPlayerIdx).getName() + "'s turn: ");
+		// deal the cards, the GUI shows the player holding the Three of Diamonds
+		engine.start(deck);
 		
 		// show the cards on the table
 		ui.repaint();
@@ -196,129 +299,11 @@ public class BigTwo {
 	 * @param cardIdx the indexes of the cards to be played
 	 */
 	public void checkMove(int playerIdx, int[] cardIdx) {
-		CardGamePlayer player = playerList.get(playerIdx);
-		CardList cl_play = player.play(cardIdx);
-		Hand currenthand = BigTwo.composeHand(playerList.get(playerIdx), cl_play);
-		if (handsOnTable.isEmpty()) {
-			Card d3 = new Card(0, 2);
-			if (currenthand != null && currenthand.contains(d3)) {
-				// add hands on table
-				handsOnTable.add(currenthand);
-				
-				// remove current hand from the player
-				playerList.get(playerIdx).removeCards(currenthand);
-				
-				// print current hand
-				String string = "{"+currenthand.getType()+"} ";
-				for (int i = 0; i < currenthand.size(); i++) {
-					string = string + "[" + currenthand.getCard(i).toString() + "]";
-				}
-				ui.printMsg(string);
-				
-				// next player
-				if (!endOfGame()) {
-					currentPlayerIdx = (currentPlayerIdx + 1) % 4;
-					ui.setActivePlayer(currentPlayerIdx);
-					ui.promptActivePlayer();
-				}
-			}
-			else {
-				ui.printMsg("Not a legal move!!!");
-				ui.promptActivePlayer();
-			}
-		}
-		else {
-			Hand lastHandOnTable = (handsOnTable.isEmpty()) ? null : handsOnTable.get(handsOnTable.size() - 1);
-			if (lastHandOnTable.getPlayer().getName() == playerList.get(currentPlayerIdx).getName()) {
-				if (currenthand != null) {
-					// add hands on table
-					handsOnTable.add(currenthand);
-					
-					// remove current hand from the player
-					playerList.get(playerIdx).removeCards(currenthand);
-					
-					// print current hand
-					String string = "{"+currenthand.getType()+"} ";
-					for (int i = 0; i < currenthand.size(); i++) {
-						string = string + "[" + currenthand.getCard(i).toString() + "]";
-					}
-					ui.printMsg(string);
-					
-					// next player
-					if (!endOfGame()) {
-						currentPlayerIdx = (currentPlayerIdx + 1) % 4;
-						ui.setActivePlayer(currentPlayerIdx);
-						ui.promptActivePlayer();
-					}
-				}
-				else {
-					ui.printMsg("Not a legal move!!!");
-					ui.promptActivePlayer();
-				}
-			}
-			else {
-				if (cl_play == null) {
-					// print pass message
-					ui.printMsg("{Pass}");
-					
-					// next player
-					if (!endOfGame()) {
-						currentPlayerIdx = (currentPlayerIdx + 1) % 4;
-						ui.setActivePlayer(currentPlayerIdx);
-						ui.promptActivePlayer();
-					}
-				}
-				else if (currenthand != null && currenthand.beats(handsOnTable.get(handsOnTable.size()-1))) {
-					// add hands on table
-					handsOnTable.add(currenthand);
-					
-					// remove current hand from the player
-					playerList.get(playerIdx).removeCards(currenthand);
-					
-					// print current hand
-					String string = "{"+currenthand.getType()+"} ";
-					for (int i = 0; i < currenthand.size(); i++) {
-						string = string + "[" + currenthand.getCard(i).toString() + "]";
-					}
-					ui.printMsg(string);
-					
-					// next player
-					if (!endOfGame()) {
-						currentPlayerIdx = (currentPlayerIdx + 1) % 4;
-						ui.setActivePlayer(currentPlayerIdx);
-						ui.promptActivePlayer();
-					}
-				}
-				else {
-					ui.printMsg("Not a legal move!!!");
-					ui.promptActivePlayer();
-				}
-			}
-		}
-		
-		// checking for end of game
-		if (endOfGame()) {
-			ui.setActivePlayer(-1);	
-			if (playerList.get((currentPlayerIdx + 2) % 4).getNumOfCards() != 0){
-				ui.printMsg("Game ends");
-				for (int i = 0; i < 4; i++) {
-					if (i != currentPlayerIdx) {
-						ui.printMsg(playerList.get(i).getName() + " has " + 
-									playerList.get(i).getNumOfCards() + " cards in hand.");
-					}
-					else {
-						ui.printMsg(playerList.get(i).getName() + " wins the game.");
-					}
-				}
-				ui.disable();
-				ui.gameEndConfirm();
-				CardGameMessage newMsg = new CardGameMessage(CardGameMessage.READY, -1, null);
-				gameClient.sendMessage(newMsg);
-			}
-		}
+		// the engine reports the move, or why it was rejected, to the GUI
+		engine.play(playerIdx, cardIdx);
 		
-		// disable the other players
-		if (this.getClientIdx() != currentPlayerIdx) {
+		// disable the other players, and the player of this client while their pass is on its way
+		if (this.getClientIdx() != engine.getCurrentPlayerIdx() || autoPassed) {
 			ui.disable();
 		}
 		else {
@@ -328,19 +313,97 @@ public class BigTwo {
 		ui.repaint();
 	}
 	
+	/**
+	 * Returns the legal plays of the specified player against the last hand on the table.
+	 * The first play of a game must contain the Three of Diamonds, and a player whose hand
+	 * was not beaten by anyone else may play any valid hand.
+	 * 
+	 * @param playerIdx the index of the player
+	 * @return a generator of the legal plays of the player
+	 */
+	public LegalMoveGenerator getLegalMoves(int playerIdx) {
+		return engine.getLegalMoves(playerIdx);
+	}
+	
 	/**
 	 * Checks if the game has ended.
 	 * 
 	 * @return true if the game has ended, false otherwise
 	 */
 	public boolean endOfGame() {
-		CardGamePlayer player = playerList.get(currentPlayerIdx);
-		if (player.getNumOfCards() == 0) {
-			return true;
+		return engine.endOfGame();
+	}
+	
+	/**
+	 * Passes for the player of this client if auto pass is on, it is their turn, and they may pass
+	 * but hold no hand beating the last hand on the table.
+	 */
+	private void autoPass(int playerIdx) {
+		if (!autoPass || autoPassed || playerIdx != getClientIdx() || !engine.canPass(playerIdx)) {
+			return;
 		}
-		else {
-			return false;
+		if (generator == null || generator.getRules() != engine.getRules()) {
+			generator = new LegalMoveGenerator(engine.getRules());
+		}
+		if (!engine.getLegalMoves(playerIdx, generator).hasMove()) {
+			autoPassed = true;
+			ui.disable();
+			ui.printMsg("No hand beats the last hand on the table: auto pass.");
+			makeMove(playerIdx, null);
+		}
+	}
+	
+	/**
+	 * Returns the number of cards left in the hands of the players.
+	 */
+	private int cardsLeft() {
+		int cards = 0;
+		for (CardGamePlayer player : engine.getPlayerList()) {
+			cards += player.getNumOfCards();
+		}
+		return cards;
+	}
+	
+	/**
+	 * Starts reviewing the endgame of the game just ended on the background thread. The position and the
+	 * names of the players are taken now, as the next game may start before the review is done.
+	 */
+	private void reviewEndgame() {
+		int playerIdx = getClientIdx();
+		if (endgame == null || playerIdx < 0 || playerIdx >= getNumOfPlayers()) {
+			return;
+		}
+		BigTwoState position = endgame;
+		String[] names = new String[getNumOfPlayers()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = engine.getPlayerList().get(i).getName();
+		}
+		reviewer.execute(() -> reviewEndgame(position, playerIdx, names));
+	}
+	
+	/**
+	 * Prints whether a player could have forced a win from the start of the endgame, and how.
+	 */
+	private void reviewEndgame(BigTwoState position, int playerIdx, String[] names) {
+		EndgameSolver solver = new EndgameSolver(new TranspositionTable(16), REVIEW_NODES);
+		int result = solver.solve(position, playerIdx);
+		if (result == EndgameSolver.UNKNOWN) {
+			ui.printMsg("Endgame review: too many lines to solve.");
+			return;
 		}
+		// the review is printed at once, so that it is not interleaved with the next game
+		StringBuilder review = new StringBuilder("Endgame review: with " + REVIEW_CARDS + " or fewer cards left, you "
+				+ (result == EndgameSolver.WIN ? "could force a win:" : "could not force a win against:"));
+		long[] line = solver.getPrincipalLine(position, playerIdx);
+		if (line != null) {
+			BigTwoState state = new BigTwoState(position);
+			for (long move : line) {
+				review.append("\n  ").append(names[state.getCurrentPlayer()]).append(": ")
+						.append(move == 0L ? "{Pass}" : new BigTwoCardList(move).toString());
+				state.apply(move);
+			}
+		}
+		ui.printMsg(review.toString());
 	}
 	
 	/**
@@ -356,7 +419,7 @@ public class BigTwo {
 	}
 
 	/**
-	 * Composes a hand based on the specified player and the cards chosen.
+	 * Composes a hand based on the specified player and the cards chosen under the standard rules.
 	 * 
 	 * @param player the player who is making the move
 	 * @param cards the cards chosen
@@ -364,66 +427,31 @@ public class BigTwo {
 	 * @return the composed hand, null if the hand is invalid or the player chose nothing
 	 */
 	public static Hand composeHand(CardGamePlayer player, CardList cards) {
-		Hand hand;
-		// input nothing
-		if (cards == null) {
-			return null;
-		}
-		
-		// return valid Single
-		else if (cards.size() == 1) {
-			hand = new Single(player, cards);
-			if (hand.isValid()) {
-				return (Single)hand;
-			}
-		}
-		
-		// return valid Pair
-		else if (cards.size() == 2) {
-			hand = new Pair(player, cards);
-			if (hand.isValid()) {
-				return (Pair)hand;
-			}
-		}
-		
-		// return valid Triple
-		else if (cards.size() == 3) {
-			hand = new Triple(player, cards);
-			if (hand.isValid()) {
-				return (Triple)hand;
-			}
-		}
-		else if (cards.size() == 5) {
-			// return valid StrightFlush
-			hand = new StraightFlush(player, cards);
-			if (hand.isValid()) {
-				return (StraightFlush)hand;
-			}
-			
-			// return valid Quad
-			hand = new Quad(player, cards);
-			if (hand.isValid()) {
-				return (Quad)hand;
-			}
-			
-			// return valid FullHouse
-			hand = new FullHouse(player, cards);
-			if (hand.isValid()) {
-				return (FullHouse)hand;
-			}
-			
-			// return valid Flush
-			hand = new Flush(player, cards);
-			if (hand.isValid()) {
-				return (Flush)hand;
-			}
-			
-			// return valid Straight
-			hand = new Straight(player, cards);
-			if (hand.isValid()) {
-				return (Straight)hand;
-			}
-		}
-		return null;
-	}	
+		return composeHand(player, cards, BigTwoRules.STANDARD);
+	}
+	
+	/**
+	 * Composes a hand based on the specified player and the cards chosen under the specified rules.
+	 * 
+	 * @param player the player who is making the move
+	 * @param cards the cards chosen
+	 * @param rules the rules the hand is classified and compared by
+	 * 
+	 * @return the composed hand, null if the hand is invalid or the player chose nothing
+	 */
+	public static Hand composeHand(CardGamePlayer player, CardList cards, BigTwoRules rules) {
+		return BigTwoEngine.composeHand(player, cards, rules);
+	}
+	
+	/**
+	 * Classifies many selections of cards at once under the standard rules, for simulations evaluating large
+	 * numbers of candidate hands.
+	 * 
+	 * @param masks the masks of the selections (see {@link HandClassifier})
+	 * @param codes the array receiving the classification of each selection, as returned by
+	 *              {@link HandClassifier#classify(long)}; at least as long as masks
+	 */
+	public static void composeHands(long[] masks, int[] codes) {
+		HandBatch.classify(masks, codes);
+	}
 }
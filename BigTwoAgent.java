@@ -0,0 +1,54 @@
+import java.util.SplittableRandom;
+
+/**
+ * The BigTwoAgent interface is a player of Big Two run by the computer.
+ *
+ * <p>An agent is asked for a move whenever it is its turn. It decides from a {@link BigTwoView}, which only
+ * holds what its seat can see, and chooses among the legal plays of the position, given as card masks
+ * (see {@link HandClassifier}), or passes. An agent may keep state between moves, so every thread of a
+ * simulation uses its own agents. An {@link AgentRunner} runs agents with a deadline and turns their moves
+ * into the card indices of {@link BigTwo#makeMove(int, int[])}.</p>
+ *
+ * @author Liu Yantong
+ */
+public interface BigTwoAgent {
+	/**
+	 * Chooses the move of the player to move.
+	 *
+	 * @param view the view of the game from the seat of the player to move
+	 * @param moves the legal plays of the player, ready to be enumerated
+	 * @param random the random number generator of the game
+	 * @return the mask of the cards to play, which must be one of the legal plays, or 0 to pass
+	 *         if {@link BigTwoView#canPass()} allows it
+	 */
+	long chooseMove(BigTwoView view, LegalMoveGenerator moves, SplittableRandom random);
+
+	/**
+	 * Creates an agent by name.
+	 *
+	 * @param name the name of the agent: "random", "greedy", "ismcts" (with the default budget, on one thread)
+	 *             or "ismcts:n" (n iterations per move with no time budget, on one thread, so that it is deterministic)
+	 * @return a new agent
+	 * @throws IllegalArgumentException if there is no agent with this name
+	 */
+	static BigTwoAgent create(String name) {
+		switch (name) {
+		case "random":
+			return new RandomAgent();
+		case "greedy":
+			return new GreedyAgent();
+		case "ismcts":
+			return new IsmctsAgent();
+		default:
+			if (name.startsWith("ismcts:")) {
+				try {
+					return new IsmctsAgent(0, 1, Long.parseLong(name.substring("ismcts:".length())));
+				}
+				catch (NumberFormatException e) {
+					// fall through to the unknown agent
+				}
+			}
+			throw new IllegalArgumentException("Unknown agent: " + name);
+		}
+	}
+}
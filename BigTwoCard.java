@@ -1,51 +1,130 @@
 /**
  * The BigTwoCard class represents the cards used in the Big Two card game.
  * It extends the Card class and implements a specific comparison logic based on the rules of the Big Two game.
- * 
+ *
+ * <p>There are exactly 52 BigTwoCard objects, one for each card, obtained by {@link #of(int, int)} or
+ * {@link #valueOf(int)}. Each card knows its ordinal (0 - 51) in the Big Two order, as defined in
+ * {@link HandClassifier}, so comparing two cards is one subtraction and a card can be passed as a byte.</p>
+ *
  * @author Liu Yantong
  */
 public class BigTwoCard extends Card{
+	private static final long serialVersionUID = 5218837310479163317L;
+
+	/**
+	 * The 52 cards, indexed by ordinal.
+	 */
+	private static final BigTwoCard[] CARDS = new BigTwoCard[52];
+
+	static {
+		for (int suit = 0; suit < 4; suit++) {
+			for (int rank = 0; rank < 13; rank++) {
+				BigTwoCard card = new BigTwoCard(suit, rank);
+				CARDS[card.ordinal] = card;
+			}
+		}
+	}
+
+	private final byte ordinal;
+
 	/**
 	 * Constructs a BigTwoCard with the specified suit and rank.
-	 * 
+	 *
 	 * @param suit the suit of the card
 	 * @param rank the rank of the card
 	 */
-	public BigTwoCard(int suit, int rank) {
+	private BigTwoCard(int suit, int rank) {
 		super(suit, rank);
+		this.ordinal = (byte) (((rank + 11) % 13) * 4 + suit);
+	}
+
+	/**
+	 * Returns the card with the specified suit and rank.
+	 *
+	 * @param suit the suit of the card, between 0 and 3
+	 * @param rank the rank of the card, between 0 and 12
+	 * @return the card
+	 * @throws IllegalArgumentException if the suit or the rank is out of range
+	 */
+	public static BigTwoCard of(int suit, int rank) {
+		if (suit < 0 || suit > 3 || rank < 0 || rank > 12) {
+			throw new IllegalArgumentException("Invalid card: suit " + suit + ", rank " + rank);
+		}
+		return CARDS[((rank + 11) % 13) * 4 + suit];
+	}
+
+	/**
+	 * Returns the card with the specified ordinal.
+	 *
+	 * @param ordinal the ordinal of the card in the Big Two order, between 0 and 51
+	 * @return the card
+	 * @throws IllegalArgumentException if the ordinal is out of range
+	 */
+	public static BigTwoCard valueOf(int ordinal) {
+		if (ordinal < 0 || ordinal >= CARDS.length) {
+			throw new IllegalArgumentException("Invalid card ordinal: " + ordinal);
+		}
+		return CARDS[ordinal];
+	}
+
+	/**
+	 * Returns the ordinal of this card in the Big Two order: the Three of Diamonds is 0 and the Two of Spades is 51.
+	 *
+	 * @return the ordinal of this card
+	 */
+	public int getOrdinal() {
+		return ordinal;
 	}
-	
+
 	/**
 	 * Compares this card with the specified card for order based on the rule of BigTwo Game.
 	 * <p>The comparison is based on the rules of the Big Two game:
 	 * Ranks in ascending order: 3, 4, 5, 6, 7, 8, 9, 10, J, Q, K, A, 2.
      * If ranks are equal, they are then compared by suit.</p>
-     * 
+     *
      * @param card the card to be compared
-     * 
-     * @return 1, 0 or -1 as this card is greater than, equal to, or less than the specified card
+     *
+     * @return a negative integer, zero, or a positive integer as this card is less than, equal to, or greater than the specified card
 	 */
 	public int compareTo(Card card) {
-		if ((this.rank >= 2 && card.rank >= 2) || (this.rank < 2 && card.rank < 2)) {
-			if (this.rank > card.rank) {
-				return 1;
-			}
-			else if (this.rank < card.rank) {
-				return -1;
-			}
-			else if (this.suit > card.suit) {
-				return 1;
-			}
-			else if(this.suit < card.suit){
-				return -1;
-			}
-		}
-		else if (this.rank < 2 && card.rank >= 2) {
-			return 1;
+		return ordinal - HandClassifier.ordinal(card);
+	}
+
+	/**
+	 * Replaces a deserialized card by the canonical card with the same suit and rank.
+	 *
+	 * @return the canonical card
+	 */
+	private Object readResolve() {
+		return of(suit, rank);
+	}
+
+	/**
+	 * Returns the ordinals of the cards of a list, one byte per card.
+	 *
+	 * @param cards the list of cards
+	 * @return the ordinals of the cards in the order of the list
+	 */
+	public static byte[] toBytes(CardList cards) {
+		byte[] bytes = new byte[cards.size()];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) HandClassifier.ordinal(cards.getCard(i));
 		}
-		else if (this.rank >= 2 && card.rank < 2) {
-			return -1;
+		return bytes;
+	}
+
+	/**
+	 * Returns the list of the cards with the specified ordinals.
+	 *
+	 * @param bytes the ordinals of the cards
+	 * @return the list of the cards in the order of the ordinals
+	 * @throws IllegalArgumentException if an ordinal is out of range
+	 */
+	public static CardList fromBytes(byte[] bytes) {
+		CardList cards = new CardList();
+		for (byte b : bytes) {
+			cards.addCard(valueOf(b));
 		}
-		return 0;
+		return cards;
 	}
 }
@@ -0,0 +1,170 @@
+/**
+ * The BigTwoCardList class is a list of Big Two cards backed by a single card mask.
+ *
+ * <p>Each card is one bit of a long, at its ordinal as defined in {@link HandClassifier}, so adding,
+ * removing and finding a card take constant time, the size is a bit count and no method allocates.
+ * The list is a set in the Big Two order: it is always sorted, the same card is held at most once,
+ * and the cards returned are the canonical {@link BigTwoCard} objects.</p>
+ *
+ * @author Liu Yantong
+ */
+public class BigTwoCardList extends CardList {
+	private static final long serialVersionUID = 3016784291468542190L;
+	private long mask;
+
+	/**
+	 * Creates an empty list.
+	 */
+	public BigTwoCardList() {
+	}
+
+	/**
+	 * Creates a list holding the cards of a mask.
+	 *
+	 * @param mask the mask of the cards
+	 */
+	public BigTwoCardList(long mask) {
+		this.mask = mask;
+	}
+
+	/**
+	 * Returns the mask of the cards in this list.
+	 *
+	 * @return the mask of the cards, one bit per card ordinal
+	 */
+	public long getMask() {
+		return mask;
+	}
+
+	/**
+	 * Adds the specified card to this list, at its place in the Big Two order. Nothing is added if the list holds it already.
+	 *
+	 * @param card the card to be added to this list
+	 */
+	@Override
+	public void addCard(Card card) {
+		if (card != null) {
+			mask |= 1L << HandClassifier.ordinal(card);
+		}
+	}
+
+	/**
+	 * Returns the card at the specified position in this list.
+	 *
+	 * @param i the index of the card to returned
+	 * @return the card at the specified position in this list, or null if the index is invalid
+	 */
+	@Override
+	public Card getCard(int i) {
+		int ordinal = ordinalAt(i);
+		return ordinal < 0 ? null : BigTwoCard.valueOf(ordinal);
+	}
+
+	/**
+	 * Removes the card at the specified position in this list.
+	 *
+	 * @param i the index of the card to be removed
+	 * @return the card that is removed from the list, or null if the index is invalid
+	 */
+	@Override
+	public Card removeCard(int i) {
+		int ordinal = ordinalAt(i);
+		if (ordinal < 0) {
+			return null;
+		}
+		mask &= ~(1L << ordinal);
+		return BigTwoCard.valueOf(ordinal);
+	}
+
+	/**
+	 * Removes the specified card from this list, if it is present.
+	 *
+	 * @param card the card to be removed from this list, if presents
+	 * @return true if this list contained the specified card; otherwise false
+	 */
+	@Override
+	public boolean removeCard(Card card) {
+		if (!contains(card)) {
+			return false;
+		}
+		mask &= ~(1L << HandClassifier.ordinal(card));
+		return true;
+	}
+
+	/**
+	 * Removes all cards from this list.
+	 */
+	@Override
+	public void removeAllCards() {
+		mask = 0L;
+	}
+
+	/**
+	 * Replaces the card at the specified position in this list with the specified card.
+	 * The new card takes its own place in the Big Two order.
+	 *
+	 * @param i    the index of the card to be replaced
+	 * @param card the card to be stored in place of the card at the specified position
+	 * @return the card previously stored at the specified position, or null if the index is invalid
+	 */
+	@Override
+	public Card setCard(int i, Card card) {
+		Card previous = removeCard(i);
+		if (previous != null) {
+			addCard(card);
+		}
+		return previous;
+	}
+
+	/**
+	 * Returns true if this list contains the specified card.
+	 *
+	 * @param card the card whose presence in this list is to be tested
+	 * @return true if this list contains the specified card; otherwise false
+	 */
+	@Override
+	public boolean contains(Card card) {
+		return card != null && (mask & (1L << HandClassifier.ordinal(card))) != 0;
+	}
+
+	/**
+	 * Returns true if this list contains no cards.
+	 *
+	 * @return true if this list contains no cards; otherwise false
+	 */
+	@Override
+	public boolean isEmpty() {
+		return mask == 0L;
+	}
+
+	/**
+	 * Sorts this list. The cards are always in the Big Two order, so this does nothing.
+	 */
+	@Override
+	public void sort() {
+	}
+
+	/**
+	 * Returns the number of cards in this list.
+	 *
+	 * @return the number of cards in this list
+	 */
+	@Override
+	public int size() {
+		return Long.bitCount(mask);
+	}
+
+	/**
+	 * Returns the ordinal of the card at the specified position, or -1 if the index is invalid.
+	 */
+	private int ordinalAt(int i) {
+		if (i < 0 || i >= Long.bitCount(mask)) {
+			return -1;
+		}
+		long m = mask;
+		for (; i > 0; i--) {
+			m &= m - 1;
+		}
+		return Long.numberOfTrailingZeros(m);
+	}
+}
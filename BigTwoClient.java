@@ -1,12 +1,14 @@
 import java.io.*;
 import java.net.*;
 import javax.swing.*;
-import java.util.ArrayList;
 
 /**
  * The BigTwoClient class is responsible for managing the client-side logic of the Big Two game.
  * It handles the connection to the game server, message parsing, and communication with the GUI and game logic.
  * 
+ * <p>Messages are sent as one object stream, or as frames (see {@link MessageFrame}) when the system property
+ * {@code bigtwo.nio} is true, to talk to a server started with the selector-based transport.</p>
+ * 
  * @author Liu Yantong
  */
 public class BigTwoClient implements NetworkGame{
@@ -20,6 +22,10 @@ public class BigTwoClient implements NetworkGame{
 	
 	private ObjectOutputStream oos; // Output stream for sending messages to the server
 	
+	private OutputStream framedOut; // Output stream for sending framed messages to the server
+	
+	private final boolean framed = Boolean.getBoolean("bigtwo.nio"); // Whether messages are framed
+	
 	private int playerID; // The player's ID
 	
 	private String playerName; // The player's name
@@ -156,7 +162,12 @@ public class BigTwoClient implements NetworkGame{
 	public synchronized void connect() {
 		try {
 			sock = new Socket(getServerIP(), getServerPort());
-			oos = new ObjectOutputStream(sock.getOutputStream());
+			if (framed) {
+				framedOut = new BufferedOutputStream(sock.getOutputStream());
+			}
+			else {
+				oos = new ObjectOutputStream(sock.getOutputStream());
+			}
 			isConnected = true;
 			Runnable connection = new ServerHandler();
 			Thread playerThread = new Thread(connection);
@@ -223,12 +234,8 @@ public class BigTwoClient implements NetworkGame{
 				// Send ready message
 				CardGameMessage newMsg = new CardGameMessage(CardGameMessage.READY, -1, null);
 				sendMessage(newMsg);
-				// Remove all the cards of other players
-				for(int i = 0; i < 4; i++) {
-					game.getPlayerList().get(i).removeAllCards();
-				}
-				// Remove hands on table
-				game.setHandsOnTable(new ArrayList<Hand>());
+				// Go back to the table before the deal
+				game.getEventLog().rewind(0);
 				// repaint
 				gui.repaint();
 				// Disable the panel
@@ -266,7 +273,12 @@ public class BigTwoClient implements NetworkGame{
 	@Override
 	public synchronized void sendMessage(GameMessage message) {
 		try {
-			oos.writeObject(message);
+			if (framed) {
+				MessageFrame.write(framedOut, message);
+			}
+			else {
+				oos.writeObject(message);
+			}
 		}
 		catch(Exception ex) {
 			ex.printStackTrace();
@@ -289,10 +301,12 @@ public class BigTwoClient implements NetworkGame{
 			CardGameMessage message = null;
 			try{
 				// Set an input stream
-				ObjectInputStream ois = new ObjectInputStream(sock.getInputStream());
+				InputStream ois = framed ? new DataInputStream(new BufferedInputStream(sock.getInputStream()))
+						: new ObjectInputStream(sock.getInputStream());
 				while(!sock.isClosed()) {
 					try {
-						message = (CardGameMessage) ois.readObject();
+						message = (CardGameMessage) (framed ? MessageFrame.read((DataInputStream) ois)
+								: ((ObjectInputStream) ois).readObject());
 						if(message != null){
 							parseMessage(message);
 						}
@@ -1,23 +1,64 @@
+import java.io.Serializable;
+
 /**
  * The BigTwoDeck class represents a deck of cards specifically designed for the Big Two card game. 
  * It extends the Deck class and provides an implementation to initialize the deck with Big Two cards.
  * 
+ * <p>A deck is sent over the network as the ordinals of its cards, one byte per card, and is
+ * rebuilt from the canonical {@link BigTwoCard} objects when it is received.</p>
+ * 
  * @author Liu Yantong
  */
 public class BigTwoDeck extends Deck {
+	private static final long serialVersionUID = -2484619377066342571L;
+	
 	/**
 	 * Initializes the deck by removing all existing cards and adding a set of Big Two cards.
      * 
-     * <p>This method creates 52 cards, with 4 suits and 13 ranks.</p>
+     * <p>This method adds the 52 canonical Big Two cards, with 4 suits and 13 ranks.</p>
 	 */
 	@Override
 	public void initialize() {
 		removeAllCards();
 		for (int i = 0; i < 4; i++) {
 			for (int j = 0; j < 13; j++) {
-				BigTwoCard card = new BigTwoCard(i, j);
-				addCard(card);
+				addCard(BigTwoCard.of(i, j));
+			}
+		}
+	}
+	
+	/**
+	 * Replaces this deck by the ordinals of its cards when it is serialized.
+	 * 
+	 * @return the serialized form of this deck
+	 */
+	private Object writeReplace() {
+		return new SerializedDeck(BigTwoCard.toBytes(this));
+	}
+	
+	/**
+	 * The serialized form of a BigTwoDeck: the ordinals of its cards in order.
+	 */
+	private static class SerializedDeck implements Serializable {
+		private static final long serialVersionUID = 7369462150744591722L;
+		private final byte[] ordinals;
+		
+		SerializedDeck(byte[] ordinals) {
+			this.ordinals = ordinals;
+		}
+		
+		/**
+		 * Rebuilds the deck from the ordinals of its cards.
+		 * 
+		 * @return the deck
+		 */
+		private Object readResolve() {
+			BigTwoDeck deck = new BigTwoDeck();
+			deck.removeAllCards();
+			for (byte ordinal : ordinals) {
+				deck.addCard(BigTwoCard.valueOf(ordinal));
 			}
+			return deck;
 		}
 	}
 }
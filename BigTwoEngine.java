@@ -0,0 +1,421 @@
+import java.util.ArrayList;
+
+/**
+ * The BigTwoEngine class runs the rules of a game of Big Two as a state machine, with no user
+ * interface and no network.
+ *
+ * <p>A game is started by dealing a deck with {@link #start(Deck)} and advanced by {@link #play(int, int[])},
+ * which plays a hand or passes for the player to move. Every change of state (a hand played, a pass,
+ * a rejected move, the reset of a trick when everyone else has passed, the next turn and the end of
+ * the game) is sent to the {@link BigTwoListener}s attached to the engine. The GUI, the server and bots
+ * all attach to an engine; with no listeners the engine only touches its own state, so simulations can
+ * run it in a tight loop.</p>
+ *
+ * @author Liu Yantong
+ */
+public class BigTwoEngine {
+	/**
+	 * The number of players of a game.
+	 */
+	public static final int NUM_OF_PLAYERS = 4;
+
+	private final ArrayList<CardGamePlayer> playerList;
+	private final TrickLog trickLog = new TrickLog();
+	// the last hand played, kept for the listeners and the user interface
+	private Hand lastHand;
+	private int currentPlayerIdx = -1;
+	private BigTwoRules rules = BigTwoRules.STANDARD;
+	private final ArrayList<BigTwoListener> listeners = new ArrayList<BigTwoListener>();
+
+	/**
+	 * Constructs an engine with four players and no cards dealt.
+	 */
+	public BigTwoEngine() {
+		this.playerList = new ArrayList<CardGamePlayer>();
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			this.playerList.add(new CardGamePlayer());
+		}
+	}
+
+	/**
+	 * Attaches a listener to this engine.
+	 *
+	 * @param listener the listener receiving the events of the game
+	 */
+	public void addListener(BigTwoListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Detaches a listener from this engine.
+	 *
+	 * @param listener the listener to be removed
+	 */
+	public void removeListener(BigTwoListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Get the list of players in the game.
+	 *
+	 * @return the list of players
+	 */
+	public ArrayList<CardGamePlayer> getPlayerList() {
+		return playerList;
+	}
+
+	/**
+	 * Get the log of the hands played in the game.
+	 *
+	 * @return the trick log of the game
+	 */
+	public TrickLog getTrickLog() {
+		return trickLog;
+	}
+
+	/**
+	 * Get the hands currently on the table. The hands are built from the trick log on every call.
+	 *
+	 * @return a new list of the hands played in the game, in the order played
+	 */
+	public ArrayList<Hand> getHandsOnTable() {
+		return trickLog.toHands(playerList, rules);
+	}
+
+	/**
+	 * Set the hands on table.
+	 *
+	 * @param handsOnTable hands on table, in the order played
+	 */
+	public void setHandsOnTable(ArrayList<Hand> handsOnTable) {
+		trickLog.clear();
+		for (Hand hand : handsOnTable) {
+			trickLog.add(playerList.indexOf(hand.getPlayer()), hand.getMask(), hand.getKey());
+		}
+		lastHand = handsOnTable.isEmpty() ? null : handsOnTable.get(handsOnTable.size() - 1);
+	}
+
+	/**
+	 * Get the last hand on the table.
+	 *
+	 * @return the last hand played, or null if the table is empty
+	 */
+	public Hand getLastHand() {
+		return lastHand;
+	}
+
+	/**
+	 * Get the index of the player to move.
+	 *
+	 * @return the index of the current player, -1 if no game has been started
+	 */
+	public int getCurrentPlayerIdx() {
+		return currentPlayerIdx;
+	}
+
+	/**
+	 * Set the index of the player to move.
+	 *
+	 * @param playerIdx index of the current player
+	 */
+	public void setCurrentPlayerIdx(int playerIdx) {
+		this.currentPlayerIdx = playerIdx;
+	}
+
+	/**
+	 * Get the rules of the game.
+	 *
+	 * @return the rules hands are classified and compared by
+	 */
+	public BigTwoRules getRules() {
+		return rules;
+	}
+
+	/**
+	 * Set the rules of the game. The rules should only be changed between games.
+	 *
+	 * @param rules the rules hands are classified and compared by
+	 */
+	public void setRules(BigTwoRules rules) {
+		this.rules = rules;
+	}
+
+	/**
+	 * Starts a game by dealing the deck to the players, one card at a time.
+	 * The player holding the Three of Diamonds moves first.
+	 *
+	 * @param deck the deck of 52 cards, already shuffled
+	 */
+	public void start(Deck deck) {
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			playerList.get(i).removeAllCards();
+		}
+		trickLog.clear();
+		lastHand = null;
+
+		int firstPlayerIdx = 0;
+		for (int i = 0; i < deck.size(); i++) {
+			Card card = deck.getCard(i);
+			playerList.get(i % NUM_OF_PLAYERS).addCard(card);
+			if (card.getSuit() == 0 && card.getRank() == 2) {
+				firstPlayerIdx = i % NUM_OF_PLAYERS;
+			}
+		}
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			playerList.get(i).sortCardsInHand();
+		}
+
+		currentPlayerIdx = firstPlayerIdx;
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).gameStarted(firstPlayerIdx);
+		}
+	}
+
+	/**
+	 * Takes a snapshot of the state of the game: the cards of the players, the hands played and the player to move.
+	 *
+	 * @return the snapshot
+	 */
+	public Snapshot snapshot() {
+		long[] holdings = new long[NUM_OF_PLAYERS];
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			holdings[i] = playerList.get(i).getCardMask();
+		}
+		return new Snapshot(holdings, new TrickLog(trickLog), currentPlayerIdx);
+	}
+
+	/**
+	 * Puts the game back in the state of a snapshot. The names of the players and the rules are kept,
+	 * and the listeners are not told.
+	 *
+	 * @param snapshot the snapshot, taken from an engine with the same rules
+	 */
+	public void restore(Snapshot snapshot) {
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			CardGamePlayer player = playerList.get(i);
+			player.removeAllCards();
+			for (long m = snapshot.holdings[i]; m != 0; m &= m - 1) {
+				player.addCard(BigTwoCard.valueOf(Long.numberOfTrailingZeros(m)));
+			}
+		}
+		trickLog.copyFrom(snapshot.trickLog);
+		lastHand = trickLog.isEmpty() ? null : trickLog.toHand(trickLog.size() - 1, playerList, rules);
+		currentPlayerIdx = snapshot.currentPlayerIdx;
+	}
+
+	/**
+	 * Makes a move for the player to move: plays the chosen cards, or passes if none are chosen.
+	 * The move is rejected if it is not the turn of the player, if the cards do not make a hand that
+	 * may be played, or if the player passes while leading.
+	 *
+	 * @param playerIdx the index of the player making the move
+	 * @param cardIdx the indices of the cards to be played, or null to pass
+	 * @return true if the move was made; false if it was rejected
+	 */
+	public boolean play(int playerIdx, int[] cardIdx) {
+		if (playerIdx != currentPlayerIdx || endOfGame()) {
+			return reject(playerIdx, cardIdx);
+		}
+		CardGamePlayer player = playerList.get(playerIdx);
+		CardList cards = player.play(cardIdx);
+		boolean leading = trickLog.isEmpty() || trickLog.getLastSeat() == playerIdx;
+
+		if (cards == null) {
+			// the first player of a game and the winner of a trick cannot pass
+			if (leading) {
+				return reject(playerIdx, cardIdx);
+			}
+			for (int i = 0; i < listeners.size(); i++) {
+				listeners.get(i).passed(playerIdx);
+			}
+		}
+		else {
+			Hand hand = composeHand(player, cards, rules);
+			if (hand == null
+					|| (trickLog.isEmpty() && !hand.contains(BigTwoCard.of(0, 2)))
+					|| (!leading && !hand.beats(lastHand))) {
+				return reject(playerIdx, cardIdx);
+			}
+			trickLog.add(playerIdx, hand.getMask(), hand.getKey());
+			lastHand = hand;
+			player.removeCards(hand);
+			for (int i = 0; i < listeners.size(); i++) {
+				listeners.get(i).handPlayed(playerIdx, hand);
+			}
+			if (endOfGame()) {
+				for (int i = 0; i < listeners.size(); i++) {
+					listeners.get(i).gameEnded(playerIdx);
+				}
+				return true;
+			}
+		}
+
+		currentPlayerIdx = (currentPlayerIdx + 1) % NUM_OF_PLAYERS;
+		if (trickLog.getLastSeat() == currentPlayerIdx) {
+			for (int i = 0; i < listeners.size(); i++) {
+				listeners.get(i).trickReset(currentPlayerIdx);
+			}
+		}
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).turnChanged(currentPlayerIdx);
+		}
+		return true;
+	}
+
+	/**
+	 * Reports a rejected move to the listeners.
+	 */
+	private boolean reject(int playerIdx, int[] cardIdx) {
+		for (int i = 0; i < listeners.size(); i++) {
+			listeners.get(i).illegalMove(playerIdx, cardIdx);
+		}
+		return false;
+	}
+
+	/**
+	 * Checks if the game has ended, that is if the current player has played all of their cards.
+	 *
+	 * @return true if the game has ended, false otherwise
+	 */
+	public boolean endOfGame() {
+		return currentPlayerIdx >= 0 && currentPlayerIdx < NUM_OF_PLAYERS
+				&& playerList.get(currentPlayerIdx).getNumOfCards() == 0;
+	}
+
+	/**
+	 * Returns whether the specified player may pass, that is whether the player does not lead.
+	 * The first player of a game and a player whose hand was not beaten by anyone else lead.
+	 *
+	 * @param playerIdx the index of the player
+	 * @return true if the player may pass; false if the player must play
+	 */
+	public boolean canPass(int playerIdx) {
+		return !trickLog.isEmpty() && trickLog.getLastSeat() != playerIdx;
+	}
+
+	/**
+	 * Returns the legal plays of the specified player against the last hand on the table.
+	 * The first play of a game must contain the Three of Diamonds, and a player whose hand
+	 * was not beaten by anyone else may play any valid hand.
+	 *
+	 * @param playerIdx the index of the player
+	 * @return a generator of the legal plays of the player
+	 */
+	public LegalMoveGenerator getLegalMoves(int playerIdx) {
+		return getLegalMoves(playerIdx, new LegalMoveGenerator(rules));
+	}
+
+	/**
+	 * Resets a generator to the legal plays of the specified player against the last hand on the table,
+	 * so that a simulation can enumerate the plays of every position with one generator.
+	 *
+	 * @param playerIdx the index of the player
+	 * @param moves a generator built for the rules of this engine
+	 * @return the generator, reset to the legal plays of the player
+	 */
+	public LegalMoveGenerator getLegalMoves(int playerIdx, LegalMoveGenerator moves) {
+		long holding = playerList.get(playerIdx).getCardMask();
+		if (trickLog.isEmpty()) {
+			moves.reset(holding, 0L, 1L << HandClassifier.ordinal(BigTwoCard.of(0, 2)));
+		}
+		else if (trickLog.getLastSeat() == playerIdx) {
+			moves.reset(holding, 0L, 0L);
+		}
+		else {
+			moves.reset(holding, trickLog.getLastKey(), 0L);
+		}
+		return moves;
+	}
+
+	/**
+	 * Composes a hand based on the specified player and the cards chosen under the specified rules.
+	 *
+	 * @param player the player who is making the move
+	 * @param cards the cards chosen
+	 * @param rules the rules the hand is classified and compared by
+	 *
+	 * @return the composed hand, null if the hand is invalid or the player chose nothing
+	 */
+	public static Hand composeHand(CardGamePlayer player, CardList cards, BigTwoRules rules) {
+		// input nothing
+		if (cards == null) {
+			return null;
+		}
+
+		// the same card chosen twice is never a valid hand
+		long mask = HandClassifier.mask(cards);
+		if (Long.bitCount(mask) != cards.size()) {
+			return null;
+		}
+
+		// classify the selection once and wrap it in the matching hand
+		switch (HandClassifier.typeOf(rules.classify(mask))) {
+		case HandClassifier.SINGLE:
+			return new Single(player, cards, rules);
+		case HandClassifier.PAIR:
+			return new Pair(player, cards, rules);
+		case HandClassifier.TRIPLE:
+			return new Triple(player, cards, rules);
+		case HandClassifier.STRAIGHT:
+			return new Straight(player, cards, rules);
+		case HandClassifier.FLUSH:
+			return new Flush(player, cards, rules);
+		case HandClassifier.FULL_HOUSE:
+			return new FullHouse(player, cards, rules);
+		case HandClassifier.QUAD:
+			return new Quad(player, cards, rules);
+		case HandClassifier.STRAIGHT_FLUSH:
+			return new StraightFlush(player, cards, rules);
+		default:
+			return null;
+		}
+	}
+
+	/**
+	 * An immutable snapshot of the state of a game, taken by {@link BigTwoEngine#snapshot()}.
+	 */
+	public static final class Snapshot {
+		/**
+		 * The state of an engine with no game: no cards dealt and no player to move.
+		 */
+		public static final Snapshot EMPTY = new Snapshot(new long[NUM_OF_PLAYERS], new TrickLog(), -1);
+
+		private final long[] holdings;
+		private final TrickLog trickLog;
+		private final int currentPlayerIdx;
+
+		private Snapshot(long[] holdings, TrickLog trickLog, int currentPlayerIdx) {
+			this.holdings = holdings;
+			this.trickLog = trickLog;
+			this.currentPlayerIdx = currentPlayerIdx;
+		}
+
+		/**
+		 * Get the cards held by a player.
+		 *
+		 * @param playerIdx the index of the player
+		 * @return the mask of the cards of the player
+		 */
+		public long getHolding(int playerIdx) {
+			return holdings[playerIdx];
+		}
+
+		/**
+		 * Get the number of hands played.
+		 *
+		 * @return the number of hands played
+		 */
+		public int getNumOfHands() {
+			return trickLog.size();
+		}
+
+		/**
+		 * Get the index of the player to move.
+		 *
+		 * @return the index of the current player, -1 if no game had been started
+		 */
+		public int getCurrentPlayerIdx() {
+			return currentPlayerIdx;
+		}
+	}
+}
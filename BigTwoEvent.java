@@ -0,0 +1,137 @@
+/**
+ * The BigTwoEvent class is an immutable record of a change of state of a game of Big Two, as kept by a
+ * {@link BigTwoEventLog}.
+ *
+ * <p>An event has a type, the index of the player it concerns and, for a deal, the cards of every player,
+ * or for a hand, its cards as a card mask (see {@link HandClassifier}).</p>
+ *
+ * @author Liu Yantong
+ */
+public final class BigTwoEvent {
+	/**
+	 * The cards were dealt; the player is the first to move.
+	 */
+	public static final int DEAL = 0;
+
+	/**
+	 * A player played a hand.
+	 */
+	public static final int PLAY = 1;
+
+	/**
+	 * A player passed.
+	 */
+	public static final int PASS = 2;
+
+	/**
+	 * Everyone else passed and the player leads a new trick.
+	 */
+	public static final int NEW_TRICK = 3;
+
+	/**
+	 * The player played their last card and won the game.
+	 */
+	public static final int GAME_END = 4;
+
+	private static final String[] NAMES = { "Deal", "Play", "Pass", "NewTrick", "GameEnd" };
+
+	private final int type;
+	private final int playerIdx;
+	private final long mask;
+	private final long[] holdings;
+
+	private BigTwoEvent(int type, int playerIdx, long mask, long[] holdings) {
+		this.type = type;
+		this.playerIdx = playerIdx;
+		this.mask = mask;
+		this.holdings = holdings;
+	}
+
+	/**
+	 * Creates a deal.
+	 *
+	 * @param firstPlayerIdx the index of the player who plays first
+	 * @param holdings the mask of the cards dealt to each player; the array is copied
+	 * @return the event
+	 */
+	public static BigTwoEvent deal(int firstPlayerIdx, long[] holdings) {
+		return new BigTwoEvent(DEAL, firstPlayerIdx, 0L, holdings.clone());
+	}
+
+	/**
+	 * Creates a hand played.
+	 *
+	 * @param playerIdx the index of the player
+	 * @param mask the mask of the cards of the hand
+	 * @return the event
+	 */
+	public static BigTwoEvent play(int playerIdx, long mask) {
+		return new BigTwoEvent(PLAY, playerIdx, mask, null);
+	}
+
+	/**
+	 * Creates an event with no cards: a pass, a new trick or the end of a game.
+	 *
+	 * @param type the type of the event
+	 * @param playerIdx the index of the player
+	 * @return the event
+	 * @throws IllegalArgumentException if the type is a deal, a hand or unknown
+	 */
+	public static BigTwoEvent of(int type, int playerIdx) {
+		if (type != PASS && type != NEW_TRICK && type != GAME_END) {
+			throw new IllegalArgumentException("Not an event without cards: " + type);
+		}
+		return new BigTwoEvent(type, playerIdx, 0L, null);
+	}
+
+	/**
+	 * Get the type of this event.
+	 *
+	 * @return one of {@link #DEAL}, {@link #PLAY}, {@link #PASS}, {@link #NEW_TRICK} and {@link #GAME_END}
+	 */
+	public int getType() {
+		return type;
+	}
+
+	/**
+	 * Get the player this event concerns.
+	 *
+	 * @return the index of the player
+	 */
+	public int getPlayerIdx() {
+		return playerIdx;
+	}
+
+	/**
+	 * Get the cards of a hand played.
+	 *
+	 * @return the mask of the cards of the hand, or 0 if this event is not a hand played
+	 */
+	public long getMask() {
+		return mask;
+	}
+
+	/**
+	 * Get the cards dealt to a player.
+	 *
+	 * @param playerIdx the index of the player
+	 * @return the mask of the cards dealt to the player, or 0 if this event is not a deal
+	 */
+	public long getHolding(int playerIdx) {
+		return holdings == null ? 0L : holdings[playerIdx];
+	}
+
+	/**
+	 * Returns a string describing this event.
+	 *
+	 * @return the type, the player and the cards of this event
+	 */
+	@Override
+	public String toString() {
+		String string = NAMES[type] + " " + playerIdx;
+		if (type == PLAY) {
+			string += " " + new BigTwoCardList(mask);
+		}
+		return string;
+	}
+}
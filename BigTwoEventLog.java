@@ -0,0 +1,267 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The BigTwoEventLog class records every change of state of the game run by a {@link BigTwoEngine} as an
+ * append-only list of {@link BigTwoEvent}s, from which the state of the game can be rebuilt.
+ *
+ * <p>The log listens to the engine. The log of a game starts with its deal; the events of the previous
+ * game are dropped when the next one is dealt. Every {@link #getSnapshotInterval()} events the log takes a
+ * {@link BigTwoEngine.Snapshot} of the engine, so rebuilding the state after any number of events restores
+ * the last snapshot before it and replays fewer than that many events, however long the game.</p>
+ *
+ * <p>{@link #restore(BigTwoEngine, int)} rebuilds the state in another engine, for example to copy a table;
+ * {@link #rewind(int)} puts the engine of the log back to an earlier state and drops the later events.
+ * Replayed hands and passes are sent to the listeners of the target engine, as when they were first played,
+ * except when the target is the engine of the log: its state is then rebuilt in a detached engine and
+ * restored from a snapshot, so its listeners, such as a client sending moves to a server, are not told.
+ * As with {@link BigTwoEngine#restore(BigTwoEngine.Snapshot)}, a listener following the game of the
+ * engine must then be brought up to date by the caller.</p>
+ *
+ * @author Liu Yantong
+ */
+public class BigTwoEventLog implements BigTwoListener {
+	/**
+	 * The number of events between two snapshots used when none is given.
+	 */
+	public static final int DEFAULT_SNAPSHOT_INTERVAL = 16;
+
+	private static final int NUM_OF_PLAYERS = BigTwoEngine.NUM_OF_PLAYERS;
+
+	private final BigTwoEngine engine;
+	private final int snapshotInterval;
+	private final ArrayList<BigTwoEvent> events = new ArrayList<BigTwoEvent>();
+	// the state after the first i * snapshotInterval events
+	private final ArrayList<BigTwoEngine.Snapshot> snapshots = new ArrayList<BigTwoEngine.Snapshot>();
+	// the engine the state of the engine of the log is rebuilt in, created when first needed
+	private BigTwoEngine detached;
+
+	/**
+	 * Creates a log taking a snapshot every {@link #DEFAULT_SNAPSHOT_INTERVAL} events and attaches it to an engine.
+	 *
+	 * @param engine the engine of the game
+	 */
+	public BigTwoEventLog(BigTwoEngine engine) {
+		this(engine, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * Creates a log and attaches it to an engine. The log starts with the next game.
+	 *
+	 * @param engine the engine of the game
+	 * @param snapshotInterval the number of events between two snapshots
+	 * @throws IllegalArgumentException if the interval is not positive
+	 */
+	public BigTwoEventLog(BigTwoEngine engine, int snapshotInterval) {
+		if (snapshotInterval <= 0) {
+			throw new IllegalArgumentException("Invalid snapshot interval: " + snapshotInterval);
+		}
+		this.engine = engine;
+		this.snapshotInterval = snapshotInterval;
+		snapshots.add(BigTwoEngine.Snapshot.EMPTY);
+		engine.addListener(this);
+	}
+
+	/**
+	 * Get the number of events between two snapshots.
+	 *
+	 * @return the snapshot interval
+	 */
+	public int getSnapshotInterval() {
+		return snapshotInterval;
+	}
+
+	/**
+	 * Get the events of the current game.
+	 *
+	 * @return an unmodifiable view of the events, in order
+	 */
+	public List<BigTwoEvent> getEvents() {
+		return Collections.unmodifiableList(events);
+	}
+
+	/**
+	 * Returns the number of events of the current game.
+	 *
+	 * @return the number of events
+	 */
+	public int size() {
+		return events.size();
+	}
+
+	/**
+	 * Puts an engine in the state of the current game after a number of events: restores the last snapshot
+	 * before them and replays the events after it. With no events the engine has no game. The engine of the
+	 * log is rebuilt without telling its listeners.
+	 *
+	 * @param target the engine, with the same rules as the engine of the log
+	 * @param numOfEvents the number of events, between 0 and {@link #size()}
+	 * @throws IndexOutOfBoundsException if the number of events is out of range
+	 */
+	public void restore(BigTwoEngine target, int numOfEvents) {
+		if (numOfEvents < 0 || numOfEvents > events.size()) {
+			throw new IndexOutOfBoundsException("Events: " + numOfEvents + ", Size: " + events.size());
+		}
+		if (target == engine) {
+			// the events are replayed where neither this log nor the listeners of the engine see them
+			if (detached == null) {
+				detached = new BigTwoEngine();
+			}
+			detached.setRules(engine.getRules());
+			restore(detached, numOfEvents);
+			engine.restore(detached.snapshot());
+			return;
+		}
+		// the snapshot of the last events may not have been taken yet if the engine is still sending them
+		int snapshot = Math.min(numOfEvents / snapshotInterval, snapshots.size() - 1);
+		int first = snapshot * snapshotInterval;
+		target.restore(snapshots.get(snapshot));
+		for (int i = first; i < numOfEvents; i++) {
+			apply(target, events.get(i));
+		}
+	}
+
+	/**
+	 * Puts the engine of the log back in the state of the current game after a number of events, and drops
+	 * the later events. Rewinding to 0 leaves the engine with no game.
+	 *
+	 * @param numOfEvents the number of events kept, between 0 and {@link #size()}
+	 * @throws IndexOutOfBoundsException if the number of events is out of range
+	 */
+	public void rewind(int numOfEvents) {
+		restore(engine, numOfEvents);
+		events.subList(numOfEvents, events.size()).clear();
+		int numOfSnapshots = Math.min(numOfEvents / snapshotInterval + 1, snapshots.size());
+		snapshots.subList(numOfSnapshots, snapshots.size()).clear();
+	}
+
+	/**
+	 * Plays an event on an engine. New tricks and ends of games follow from the hands and passes, and are
+	 * made again by the engine.
+	 */
+	private static void apply(BigTwoEngine target, BigTwoEvent event) {
+		int playerIdx = event.getPlayerIdx();
+		switch (event.getType()) {
+		case BigTwoEvent.DEAL:
+			BigTwoDeck deck = new BigTwoDeck();
+			deck.removeAllCards();
+			// the engine deals one card to each player in turn
+			long[] holdings = new long[NUM_OF_PLAYERS];
+			for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+				holdings[i] = event.getHolding(i);
+			}
+			for (int i = 0; i < 52; i++) {
+				long card = holdings[i % NUM_OF_PLAYERS] & -holdings[i % NUM_OF_PLAYERS];
+				holdings[i % NUM_OF_PLAYERS] &= ~card;
+				if (card != 0L) {
+					deck.addCard(BigTwoCard.valueOf(Long.numberOfTrailingZeros(card)));
+				}
+			}
+			target.start(deck);
+			break;
+		case BigTwoEvent.PLAY:
+			long holding = target.getPlayerList().get(playerIdx).getCardMask();
+			long mask = event.getMask();
+			int[] cardIdx = new int[Long.bitCount(mask)];
+			int count = 0;
+			for (long m = mask; m != 0; m &= m - 1) {
+				cardIdx[count++] = Long.bitCount(holding & ((m & -m) - 1));
+			}
+			target.play(playerIdx, cardIdx);
+			break;
+		case BigTwoEvent.PASS:
+			target.play(playerIdx, null);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Appends an event.
+	 */
+	private void append(BigTwoEvent event) {
+		events.add(event);
+	}
+
+	/**
+	 * Takes the snapshots due, one for every multiple of the interval reached by the number of events. The
+	 * engine tells of a hand or a pass before moving on to the next player, so the snapshots are taken once
+	 * the turn has changed or the game has ended; the new tricks reported in between do not change the state.
+	 */
+	private void takeSnapshots() {
+		while (snapshots.size() <= events.size() / snapshotInterval) {
+			snapshots.add(engine.snapshot());
+		}
+	}
+
+	/**
+	 * Starts the log of a new game with its deal.
+	 *
+	 * @param firstPlayerIdx the index of the player who plays first
+	 */
+	@Override
+	public void gameStarted(int firstPlayerIdx) {
+		events.clear();
+		snapshots.subList(1, snapshots.size()).clear();
+		long[] holdings = new long[NUM_OF_PLAYERS];
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			holdings[i] = engine.getPlayerList().get(i).getCardMask();
+		}
+		append(BigTwoEvent.deal(firstPlayerIdx, holdings));
+		takeSnapshots();
+	}
+
+	/**
+	 * Records a hand played.
+	 *
+	 * @param playerIdx the index of the player
+	 * @param hand the hand played
+	 */
+	@Override
+	public void handPlayed(int playerIdx, Hand hand) {
+		append(BigTwoEvent.play(playerIdx, hand.getMask()));
+	}
+
+	/**
+	 * Records a pass.
+	 *
+	 * @param playerIdx the index of the player who passed
+	 */
+	@Override
+	public void passed(int playerIdx) {
+		append(BigTwoEvent.of(BigTwoEvent.PASS, playerIdx));
+	}
+
+	/**
+	 * Records a new trick.
+	 *
+	 * @param playerIdx the index of the player who leads
+	 */
+	@Override
+	public void trickReset(int playerIdx) {
+		append(BigTwoEvent.of(BigTwoEvent.NEW_TRICK, playerIdx));
+	}
+
+	/**
+	 * Records the end of the game.
+	 *
+	 * @param winnerIdx the index of the winner
+	 */
+	@Override
+	public void gameEnded(int winnerIdx) {
+		append(BigTwoEvent.of(BigTwoEvent.GAME_END, winnerIdx));
+		takeSnapshots();
+	}
+
+	/**
+	 * Takes the snapshots due once a hand or a pass has moved the turn on.
+	 *
+	 * @param playerIdx the index of the player to move
+	 */
+	@Override
+	public void turnChanged(int playerIdx) {
+		takeSnapshots();
+	}
+}
@@ -8,10 +8,11 @@ import javax.swing.text.DefaultCaret;
 /**
  * The BigTwoGUI class constructs the graphical user interface for the Big Two card game.
  * It displays the current card condition of each players, messages of the game, and chat messages.
+ * It listens to the {@link BigTwoEngine} of the game to show the moves as they are made.
  * 
  * @author Liu Yantong
  */
-public class BigTwoGUI implements CardGameUI{
+public class BigTwoGUI implements CardGameUI, BigTwoListener{
 	// private instances
 	/**
 	 * Big Two card game associated with this GUI
@@ -127,6 +128,11 @@ public class BigTwoGUI implements CardGameUI{
 		connect.addActionListener(new ConnectMenuItemListener());
 		gameMenu.add(connect);
 		
+		// Add auto pass menu item
+		JCheckBoxMenuItem autoPass = new JCheckBoxMenuItem("Auto Pass");
+		autoPass.addActionListener(new AutoPassMenuItemListener());
+		gameMenu.add(autoPass);
+		
 		// Add quit menu item
 		JMenuItem quit = new JMenuItem("Quit");
 		quit.addActionListener(new QuitMenuItemListener());
@@ -371,6 +377,87 @@ public class BigTwoGUI implements CardGameUI{
 		resetSelected();
 	}
 	
+	/**
+	 * Shows the player holding the Three of Diamonds as the active player when a game starts.
+	 * 
+	 * @param firstPlayerIdx the index of the player who plays first
+	 */
+	@Override
+	public void gameStarted(int firstPlayerIdx) {
+		setActivePlayer(firstPlayerIdx);
+		printMsg(game.getPlayerList().get(firstPlayerIdx).getName() + "'s turn: ");
+	}
+	
+	/**
+	 * Prints the hand played by a player.
+	 * 
+	 * @param playerIdx the index of the player
+	 * @param hand the hand played
+	 */
+	@Override
+	public void handPlayed(int playerIdx, Hand hand) {
+		String string = "{" + hand.getType() + "} ";
+		for (int i = 0; i < hand.size(); i++) {
+			string = string + "[" + hand.getCard(i).toString() + "]";
+		}
+		printMsg(string);
+	}
+	
+	/**
+	 * Prints a pass.
+	 * 
+	 * @param playerIdx the index of the player who passed
+	 */
+	@Override
+	public void passed(int playerIdx) {
+		printMsg("{Pass}");
+	}
+	
+	/**
+	 * Tells the active player that the move was rejected and prompts for another one.
+	 * 
+	 * @param playerIdx the index of the player who tried the move
+	 * @param cardIdx the indices of the cards chosen
+	 */
+	@Override
+	public void illegalMove(int playerIdx, int[] cardIdx) {
+		printMsg("Not a legal move!!!");
+		promptActivePlayer();
+	}
+	
+	/**
+	 * Makes the next player the active player and prompts for a move.
+	 * 
+	 * @param playerIdx the index of the player to move
+	 */
+	@Override
+	public void turnChanged(int playerIdx) {
+		setActivePlayer(playerIdx);
+		promptActivePlayer();
+	}
+	
+	/**
+	 * Prints the result of the game and tells the players who won.
+	 * 
+	 * @param winnerIdx the index of the winner
+	 */
+	@Override
+	public void gameEnded(int winnerIdx) {
+		setActivePlayer(-1);
+		printMsg("Game ends");
+		for (int i = 0; i < game.getNumOfPlayers(); i++) {
+			CardGamePlayer player = game.getPlayerList().get(i);
+			if (i != winnerIdx) {
+				printMsg(player.getName() + " has " + player.getNumOfCards() + " cards in hand.");
+			}
+			else {
+				printMsg(player.getName() + " wins the game.");
+			}
+		}
+		disable();
+		gameEndConfirm();
+	}
+	
 	// inner class
 	
 	/**
@@ -523,8 +610,8 @@ public class BigTwoGUI implements CardGameUI{
 			}
 			
 			// Draw hands on table
-			if (!game.getHandsOnTable().isEmpty()) {
-				Hand lastHandOnTable = game.getHandsOnTable().get(game.getHandsOnTable().size()-1);
+			Hand lastHandOnTable = game.getLastHand();
+			if (lastHandOnTable != null) {
 				// Last hand on table message
 				g.drawString("Last Hand on Table [Played by " + lastHandOnTable.getPlayer().getName() + "]", nameXco, nameYco + regionGap * 4);
 				// Back image
@@ -746,6 +833,24 @@ public class BigTwoGUI implements CardGameUI{
 		}
 	}
 	
+	/**
+	 * This class handles the action performed when the auto pass menu item is selected.
+	 * It turns on or off passing automatically when the player cannot beat the last hand.
+	 */
+	public class AutoPassMenuItemListener implements ActionListener{
+		/**
+		 * This method handles the event when the user turns auto pass on or off.
+		 * 
+		 * @param e the ActionEvent containing information of "auto pass"
+		 */
+		@Override
+		public void actionPerformed(ActionEvent e) {
+			boolean selected = ((JCheckBoxMenuItem) e.getSource()).isSelected();
+			printMsg("Auto pass is " + (selected ? "on." : "off."));
+			game.setAutoPass(selected);
+		}
+	}
+	
 	/**
 	 * This class handles the action performed when the quit menu item is selected.
 	 * It terminates the application.
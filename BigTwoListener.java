@@ -0,0 +1,68 @@
+/**
+ * The BigTwoListener interface receives the events of a {@link BigTwoEngine}.
+ *
+ * <p>Every method does nothing by default, so a listener only overrides the events it needs.
+ * The events are sent on the thread that drives the engine, after the state of the engine has
+ * been updated.</p>
+ *
+ * @author Liu Yantong
+ */
+public interface BigTwoListener {
+	/**
+	 * Called when the cards have been dealt and a new game starts.
+	 *
+	 * @param firstPlayerIdx the index of the player holding the Three of Diamonds, who plays first
+	 */
+	default void gameStarted(int firstPlayerIdx) {
+	}
+
+	/**
+	 * Called when a player has played a hand, which is now the last hand on the table.
+	 *
+	 * @param playerIdx the index of the player
+	 * @param hand the hand played
+	 */
+	default void handPlayed(int playerIdx, Hand hand) {
+	}
+
+	/**
+	 * Called when a player has passed.
+	 *
+	 * @param playerIdx the index of the player
+	 */
+	default void passed(int playerIdx) {
+	}
+
+	/**
+	 * Called when a move was rejected. The state of the game is unchanged.
+	 *
+	 * @param playerIdx the index of the player who tried the move
+	 * @param cardIdx the indices of the cards chosen, or null for a pass
+	 */
+	default void illegalMove(int playerIdx, int[] cardIdx) {
+	}
+
+	/**
+	 * Called when every other player has passed on the last hand, so its player leads a new trick with any hand.
+	 *
+	 * @param leaderIdx the index of the player leading the new trick
+	 */
+	default void trickReset(int leaderIdx) {
+	}
+
+	/**
+	 * Called when the turn passes to the next player.
+	 *
+	 * @param playerIdx the index of the player to move
+	 */
+	default void turnChanged(int playerIdx) {
+	}
+
+	/**
+	 * Called when a player has played all of their cards.
+	 *
+	 * @param winnerIdx the index of the winner
+	 */
+	default void gameEnded(int winnerIdx) {
+	}
+}
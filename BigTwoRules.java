@@ -0,0 +1,199 @@
+import java.util.Arrays;
+
+/**
+ * The BigTwoRules class describes a set of house rules of Big Two and compiles it into lookup tables.
+ *
+ * <p>House rules differ in whether A-2-3-4-5 and 2-3-4-5-6 are straights, how flushes are compared
+ * and how the five-card hands are ordered. A rule set is compiled once, when it is constructed,
+ * into a table of the straights of every set of ranks and a table of the comparison key of every
+ * type and top card. Classifying a hand or comparing two hands then costs a table lookup, so
+ * several rule sets can be used side by side with no cost per move. Rule sets are immutable.</p>
+ *
+ * <p>Under the low straights rule, A-2-3-4-5 and 2-3-4-5-6 rank below 3-4-5-6-7. Their top cards are
+ * the Five and the Six, which are also the cards returned by {@link Hand#getTopCard()}.</p>
+ *
+ * @author Liu Yantong
+ */
+public final class BigTwoRules {
+	/**
+	 * The five-card hands of the standard rules, from the weakest to the strongest.
+	 */
+	private static final int[] STANDARD_ORDER = { HandClassifier.STRAIGHT, HandClassifier.FLUSH,
+			HandClassifier.FULL_HOUSE, HandClassifier.QUAD, HandClassifier.STRAIGHT_FLUSH };
+
+	/**
+	 * The standard rules: no low straights, flushes compared by suit first, five-card hands ordered
+	 * Straight, Flush, FullHouse, Quad, StraightFlush.
+	 */
+	public static final BigTwoRules STANDARD = new BigTwoRules(false, true, STANDARD_ORDER);
+
+	/**
+	 * The lowest bit of every rank nibble of a card mask.
+	 */
+	private static final long RANK_BITS = 0x1111111111111L;
+
+	private final boolean lowStraights;
+	private final boolean flushBySuit;
+	private final int[] fiveCardOrder;
+	private final boolean standard;
+	// the rank of the top card of the straight made by each set of five ranks (one bit per Big Two rank), -1 if none
+	private final byte[] straightTop = new byte[1 << 13];
+	// the order of the type and the strength of each type and top card: order << 6 | strength, indexed by type << 6 | top
+	private final char[] keys = new char[(HandClassifier.STRAIGHT_FLUSH + 1) << 6];
+
+	/**
+	 * Constructs and compiles a set of rules.
+	 *
+	 * @param lowStraights whether A-2-3-4-5 and 2-3-4-5-6 are straights
+	 * @param flushBySuit whether flushes are compared by the suit of their top cards first; if false,
+	 *                    they are compared by the rank of their top cards first
+	 * @param fiveCardOrder the type codes of the five-card hands (see {@link HandClassifier}), from the weakest to the strongest
+	 * @throws IllegalArgumentException if fiveCardOrder is not an ordering of the five-card hands
+	 */
+	public BigTwoRules(boolean lowStraights, boolean flushBySuit, int[] fiveCardOrder) {
+		if (fiveCardOrder == null || fiveCardOrder.length != STANDARD_ORDER.length) {
+			throw new IllegalArgumentException("The order must list the " + STANDARD_ORDER.length + " five-card hands");
+		}
+		int[] order = new int[HandClassifier.STRAIGHT_FLUSH + 1];
+		for (int type = HandClassifier.SINGLE; type < HandClassifier.STRAIGHT; type++) {
+			order[type] = type;
+		}
+		boolean[] listed = new boolean[HandClassifier.STRAIGHT_FLUSH + 1];
+		for (int i = 0; i < fiveCardOrder.length; i++) {
+			int type = fiveCardOrder[i];
+			if (type < HandClassifier.STRAIGHT || type > HandClassifier.STRAIGHT_FLUSH || listed[type]) {
+				throw new IllegalArgumentException("Invalid order of the five-card hands at position " + i);
+			}
+			listed[type] = true;
+			order[type] = HandClassifier.STRAIGHT + i;
+		}
+		this.lowStraights = lowStraights;
+		this.flushBySuit = flushBySuit;
+		this.fiveCardOrder = fiveCardOrder.clone();
+		boolean standardOrder = true;
+		for (int i = 0; i < fiveCardOrder.length; i++) {
+			standardOrder = standardOrder && fiveCardOrder[i] == STANDARD_ORDER[i];
+		}
+		this.standard = !lowStraights && flushBySuit && standardOrder;
+
+		// straights: five consecutive ranks, and the two low straights ending with the Five and the Six
+		Arrays.fill(straightTop, (byte) -1);
+		for (int top = 4; top < 13; top++) {
+			straightTop[0x1F << (top - 4)] = (byte) top;
+		}
+		if (lowStraights) {
+			straightTop[0x1807] = 2; // A-2-3-4-5
+			straightTop[0x100F] = 3; // 2-3-4-5-6
+		}
+
+		for (int type = HandClassifier.SINGLE; type <= HandClassifier.STRAIGHT_FLUSH; type++) {
+			for (int top = 0; top < 52; top++) {
+				int strength = HandClassifier.strengthOf(HandClassifier.code(type, top));
+				if (type == HandClassifier.FLUSH && !flushBySuit) {
+					strength = top;
+				}
+				keys[(type << 6) | top] = (char) ((order[type] << 6) | strength);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether A-2-3-4-5 and 2-3-4-5-6 are straights.
+	 *
+	 * @return true if the low straights are allowed
+	 */
+	public boolean hasLowStraights() {
+		return lowStraights;
+	}
+
+	/**
+	 * Returns whether flushes are compared by the suit of their top cards first.
+	 *
+	 * @return true if flushes are compared by suit first; false if by rank first
+	 */
+	public boolean isFlushBySuit() {
+		return flushBySuit;
+	}
+
+	/**
+	 * Returns the order of the five-card hands.
+	 *
+	 * @return the type codes of the five-card hands, from the weakest to the strongest
+	 */
+	public int[] getFiveCardOrder() {
+		return fiveCardOrder.clone();
+	}
+
+	/**
+	 * Returns whether five of a set of ranks make a straight under these rules.
+	 *
+	 * @param ranks the set of ranks, one bit per Big Two rank from the Three (bit 0) to the Two (bit 12)
+	 * @return true if the ranks hold a straight
+	 */
+	public boolean containsStraight(int ranks) {
+		if ((ranks & (ranks >>> 1) & (ranks >>> 2) & (ranks >>> 3) & (ranks >>> 4)) != 0) {
+			return true;
+		}
+		return lowStraights && ((ranks & 0x1807) == 0x1807 || (ranks & 0x100F) == 0x100F);
+	}
+
+	/**
+	 * Classifies the cards of a mask under these rules.
+	 *
+	 * @param mask the mask of the cards
+	 * @return the packed type, strength and top card of the hand as in {@link HandClassifier#classify(long)},
+	 *         with the strength given by these rules, or {@link HandClassifier#INVALID}
+	 */
+	public int classify(long mask) {
+		int code = HandTable.classify(mask);
+		if (standard) {
+			return code;
+		}
+		int type = HandClassifier.typeOf(code);
+		int top = HandClassifier.topOf(code);
+		if (lowStraights && (type == HandClassifier.INVALID || type == HandClassifier.FLUSH) && Long.bitCount(mask) == 5) {
+			int rank = straightTop[rankSet(mask)];
+			if (rank >= 0) {
+				type = type == HandClassifier.FLUSH ? HandClassifier.STRAIGHT_FLUSH : HandClassifier.STRAIGHT;
+				top = Long.numberOfTrailingZeros(mask & (0xFL << (rank << 2)));
+			}
+		}
+		return type == HandClassifier.INVALID ? HandClassifier.INVALID : code(type, top);
+	}
+
+	/**
+	 * Packs the classification of a hand from its type and top card under these rules.
+	 *
+	 * @param type the type code of the hand
+	 * @param top the ordinal of the top card of the hand
+	 * @return the packed type, strength and top card of the hand
+	 */
+	public int code(int type, int top) {
+		return (type << 12) | ((keys[(type << 6) | top] & 0x3F) << 6) | top;
+	}
+
+	/**
+	 * Returns the comparison key of a hand under these rules: the size of the hand, then the order
+	 * of its type, then its strength within the type.
+	 *
+	 * @param type the type code of the hand
+	 * @param top the ordinal of the top card of the hand
+	 * @return the comparison key of the hand, in the format of {@link HandClassifier#key(int, int)}
+	 */
+	public long key(int type, int top) {
+		return ((long) HandClassifier.sizeOf(type) << 16) | keys[(type << 6) | top];
+	}
+
+	/**
+	 * Returns the set of the ranks of the cards of a mask, one bit per Big Two rank.
+	 */
+	private static int rankSet(long mask) {
+		long folded = mask | (mask >>> 1);
+		long ranks = (folded | (folded >>> 2)) & RANK_BITS;
+		int set = 0;
+		for (; ranks != 0; ranks &= ranks - 1) {
+			set |= 1 << (Long.numberOfTrailingZeros(ranks) >> 2);
+		}
+		return set;
+	}
+}
@@ -4,11 +4,64 @@
  *
  */
 public class BigTwoServer extends CardGameServer {
+	// follows the game played by the clients
+	private final BigTwoEngine engine = new BigTwoEngine();
+	// records the game played by the clients, so that the table can be restored
+	private final BigTwoEventLog eventLog = new BigTwoEventLog(engine);
+
 	/**
 	 * Creates and returns an instance of the BigTwoServer class.
 	 */
 	public BigTwoServer() {
 		super("Big Two Server", 4);
+		engine.addListener(new BigTwoListener() {
+			@Override
+			public void handPlayed(int playerIdx, Hand hand) {
+				println("Player " + playerIdx + " plays " + hand.getType() + " " + hand);
+			}
+
+			@Override
+			public void gameEnded(int winnerIdx) {
+				println("Player " + winnerIdx + " wins the game.");
+			}
+		});
+	}
+
+	/**
+	 * Returns the log of the events of the game played by the clients.
+	 * @return the event log of the game
+	 */
+	public BigTwoEventLog getEventLog() {
+		return eventLog;
+	}
+
+	/**
+	 * Deals the deck of the new game to the engine of the server.
+	 * @param deck the shuffled deck
+	 */
+	protected void gameStarted(Deck deck) {
+		engine.start(deck);
+	}
+
+	/**
+	 * Plays a move on the engine of the server. Illegal moves are rejected by the
+	 * engine, as they are by the clients.
+	 * @param playerID the index of the player making the move
+	 * @param cardIdx the indices of the cards played, or null for a pass
+	 */
+	protected void moveReceived(int playerID, int[] cardIdx) {
+		engine.play(playerID, cardIdx);
+	}
+
+	/**
+	 * Goes back to the table before the deal when a player leaves in the middle
+	 * of a game, as the clients do.
+	 * @param playerID the index of the player who left
+	 */
+	protected void playerLeft(int playerID) {
+		if (!engine.endOfGame()) {
+			eventLog.rewind(0);
+		}
 	}
 	
 	/**
@@ -22,16 +75,20 @@ public class BigTwoServer extends CardGameServer {
 	/**
 	 * main() method for starting the server.
 	 * 
+	 * The selector-based transport is used when the system property
+	 * bigtwo.nio is true.
+	 * 
 	 * @param args
 	 *            the port to be used by the server. The default port 5000 will
 	 *            be used if no arguments has been supplied
 	 */
 	public static void main(String[] args) {
 		BigTwoServer server = new BigTwoServer();
-		if (args.length > 0) {
-			server.start(Integer.parseInt(args[0]));
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 2396;
+		if (Boolean.getBoolean("bigtwo.nio")) {
+			server.startNio(port, NioTransport.DEFAULT_SELECTORS);
 		} else {
-			server.start(2396);
+			server.start(port);
 		}
 	} // main
 }
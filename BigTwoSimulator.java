@@ -0,0 +1,316 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The BigTwoSimulator class plays a number of complete games of Big Two between agents run by the computer,
+ * and reports how the seats, the agents and the house rules fare.
+ *
+ * <p>The games are split over a {@link ForkJoinPool}. Every worker thread plays its games on its own
+ * {@link BigTwoEngine}, deck and agents, and every game is dealt and played with its own random number
+ * generator, seeded from the seed of the run and the number of the game, so a run is reproducible whatever
+ * the number of threads. The statistics of a batch of games are counted by the worker and added to shared
+ * {@link LongAdder}s when the batch is done, so the workers never wait on each other.</p>
+ *
+ * <pre>
+ * java BigTwoSimulator [games] [--agents a,b,c,d] [--threads n] [--seed s] [--low-straights] [--flush-by-rank]
+ * </pre>
+ *
+ * @author Liu Yantong
+ */
+public class BigTwoSimulator {
+	/**
+	 * The largest number of games played by one task without being split.
+	 */
+	private static final int BATCH = 256;
+
+	/**
+	 * The names of the hand types, indexed by type code.
+	 */
+	private static final String[] HAND_TYPES = { "Invalid", "Single", "Pair", "Triple", "Straight", "Flush",
+			"FullHouse", "Quad", "StraightFlush" };
+
+	private final String[] agentNames;
+	private final BigTwoRules rules;
+	private final long seed;
+
+	private final LongAdder[] wins = newAdders(BigTwoEngine.NUM_OF_PLAYERS);
+	private final LongAdder[] handTypes = newAdders(HAND_TYPES.length);
+	private final LongAdder moves = new LongAdder();
+	private final LongAdder passes = new LongAdder();
+	private final LongAdder tricks = new LongAdder();
+	private final LongAdder cardsLeft = new LongAdder();
+
+	// the engine, deck and agents of each worker thread
+	private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+	/**
+	 * Constructs a simulator.
+	 *
+	 * @param agentNames the names of the agents in the four seats (see {@link BigTwoAgent#create(String)})
+	 * @param rules the rules the games are played by
+	 * @param seed the seed the games are dealt and played from
+	 * @throws IllegalArgumentException if there are not four agents or an agent is unknown
+	 */
+	public BigTwoSimulator(String[] agentNames, BigTwoRules rules, long seed) {
+		if (agentNames.length != BigTwoEngine.NUM_OF_PLAYERS) {
+			throw new IllegalArgumentException("Expected " + BigTwoEngine.NUM_OF_PLAYERS + " agents");
+		}
+		for (String name : agentNames) {
+			BigTwoAgent.create(name);
+		}
+		this.agentNames = agentNames.clone();
+		this.rules = rules;
+		this.seed = seed;
+	}
+
+	/**
+	 * Main method to run a simulation and print its statistics.
+	 *
+	 * @param args the number of games (default 100000) and the options: {@code --agents} the comma-separated
+	 *             agents of the four seats (default random), {@code --threads} the parallelism (default the
+	 *             number of processors), {@code --seed} the seed (default the current time), and the house rules
+	 *             {@code --low-straights} and {@code --flush-by-rank}
+	 */
+	public static void main(String[] args) {
+		int games = 100000;
+		String[] agentNames = { "random", "random", "random", "random" };
+		int threads = Runtime.getRuntime().availableProcessors();
+		long seed = System.nanoTime();
+		boolean lowStraights = false;
+		boolean flushBySuit = true;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--agents":
+				agentNames = args[++i].split(",");
+				break;
+			case "--threads":
+				threads = Integer.parseInt(args[++i]);
+				break;
+			case "--seed":
+				seed = Long.parseLong(args[++i]);
+				break;
+			case "--low-straights":
+				lowStraights = true;
+				break;
+			case "--flush-by-rank":
+				flushBySuit = false;
+				break;
+			default:
+				games = Integer.parseInt(args[i]);
+				break;
+			}
+		}
+		BigTwoRules rules = lowStraights || !flushBySuit
+				? new BigTwoRules(lowStraights, flushBySuit, BigTwoRules.STANDARD.getFiveCardOrder())
+				: BigTwoRules.STANDARD;
+
+		BigTwoSimulator simulator = new BigTwoSimulator(agentNames, rules, seed);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		long start = System.nanoTime();
+		try {
+			simulator.run(pool, games);
+		}
+		finally {
+			pool.shutdown();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		simulator.print(games, threads, seconds);
+	}
+
+	/**
+	 * Plays games and adds their statistics to those of this simulator.
+	 *
+	 * @param pool the pool the games are played on
+	 * @param games the number of games
+	 */
+	public void run(ForkJoinPool pool, int games) {
+		pool.invoke(new Games(0, games));
+	}
+
+	/**
+	 * Returns the number of games won by each seat.
+	 *
+	 * @return the number of wins, indexed by seat
+	 */
+	public long[] getWins() {
+		return sums(wins);
+	}
+
+	/**
+	 * Returns the number of hands of each type played.
+	 *
+	 * @return the number of hands, indexed by type code (see {@link HandClassifier})
+	 */
+	public long[] getHandTypeCounts() {
+		return sums(handTypes);
+	}
+
+	/**
+	 * Prints the statistics of the games played.
+	 */
+	private void print(int games, int threads, double seconds) {
+		System.out.printf("%d games, %d threads, seed %d, %.2f s, %.0f games/s%n", games, threads, seed, seconds,
+				games / seconds);
+		long[] winCounts = getWins();
+		for (int i = 0; i < winCounts.length; i++) {
+			System.out.printf("Seat %d (%s): %.2f%% wins%n", i, agentNames[i], 100.0 * winCounts[i] / games);
+		}
+		System.out.printf("Average per game: %.2f moves, %.2f passes, %.2f tricks, %.2f cards left to the losers%n",
+				(double) moves.sum() / games, (double) passes.sum() / games, (double) tricks.sum() / games,
+				(double) cardsLeft.sum() / games);
+		long[] typeCounts = getHandTypeCounts();
+		long hands = 0;
+		for (long count : typeCounts) {
+			hands += count;
+		}
+		for (int type = HandClassifier.SINGLE; type < typeCounts.length; type++) {
+			System.out.printf("%-14s %6.2f%% of hands%n", HAND_TYPES[type], 100.0 * typeCounts[type] / hands);
+		}
+	}
+
+	/**
+	 * A range of games, split in halves until it is small enough to be played by one worker.
+	 */
+	private class Games extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+
+		Games(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > BATCH) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Games(from, middle), new Games(middle, to));
+				return;
+			}
+			Worker worker = workers.get();
+			worker.clear();
+			for (int game = from; game < to; game++) {
+				worker.play(game);
+			}
+			worker.flush();
+		}
+	}
+
+	/**
+	 * The engine, deck and agents of a worker thread, and the statistics of its current batch of games.
+	 */
+	private class Worker implements BigTwoListener {
+		private final BigTwoEngine engine = new BigTwoEngine();
+		private final BigTwoDeck deck = new BigTwoDeck();
+		private final BigTwoAgent[] agents = new BigTwoAgent[BigTwoEngine.NUM_OF_PLAYERS];
+		private final LegalMoveGenerator generator = new LegalMoveGenerator(rules);
+
+		private final long[] winCounts = new long[BigTwoEngine.NUM_OF_PLAYERS];
+		private final long[] typeCounts = new long[HAND_TYPES.length];
+		private long moveCount;
+		private long passCount;
+		private long trickCount;
+		private long cardsLeftCount;
+
+		Worker() {
+			for (int i = 0; i < agents.length; i++) {
+				agents[i] = BigTwoAgent.create(agentNames[i]);
+			}
+			engine.setRules(rules);
+			engine.addListener(this);
+		}
+
+		/**
+		 * Deals and plays one game to the end.
+		 */
+		void play(int game) {
+			SplittableRandom random = new SplittableRandom(seed + game * 0x9E3779B97F4A7C15L);
+			deck.initialize();
+			deck.shuffle(random);
+			engine.start(deck);
+			while (!engine.endOfGame()) {
+				int playerIdx = engine.getCurrentPlayerIdx();
+				BigTwoView view = new BigTwoView(engine, playerIdx);
+				long move = agents[playerIdx].chooseMove(view, view.getLegalMoves(generator), random);
+				if (!engine.play(playerIdx, view.toCardIdx(move))) {
+					throw new IllegalStateException("Agent " + agentNames[playerIdx] + " made an illegal move in game " + game);
+				}
+			}
+		}
+
+		@Override
+		public void handPlayed(int playerIdx, Hand hand) {
+			moveCount++;
+			typeCounts[HandClassifier.typeOf(rules.classify(hand.getMask()))]++;
+		}
+
+		@Override
+		public void passed(int playerIdx) {
+			moveCount++;
+			passCount++;
+		}
+
+		@Override
+		public void gameStarted(int firstPlayerIdx) {
+			trickCount++;
+		}
+
+		@Override
+		public void trickReset(int leaderIdx) {
+			trickCount++;
+		}
+
+		@Override
+		public void gameEnded(int winnerIdx) {
+			winCounts[winnerIdx]++;
+			for (CardGamePlayer player : engine.getPlayerList()) {
+				cardsLeftCount += player.getNumOfCards();
+			}
+		}
+
+		/**
+		 * Clears the statistics of the batch.
+		 */
+		void clear() {
+			Arrays.fill(winCounts, 0L);
+			Arrays.fill(typeCounts, 0L);
+			moveCount = passCount = trickCount = cardsLeftCount = 0L;
+		}
+
+		/**
+		 * Adds the statistics of the batch to those of the simulator.
+		 */
+		void flush() {
+			for (int i = 0; i < winCounts.length; i++) {
+				wins[i].add(winCounts[i]);
+			}
+			for (int i = 0; i < typeCounts.length; i++) {
+				handTypes[i].add(typeCounts[i]);
+			}
+			moves.add(moveCount);
+			passes.add(passCount);
+			tricks.add(trickCount);
+			cardsLeft.add(cardsLeftCount);
+		}
+	}
+
+	private static LongAdder[] newAdders(int n) {
+		LongAdder[] adders = new LongAdder[n];
+		for (int i = 0; i < n; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	private static long[] sums(LongAdder[] adders) {
+		long[] sums = new long[adders.length];
+		for (int i = 0; i < adders.length; i++) {
+			sums[i] = adders[i].sum();
+		}
+		return sums;
+	}
+}
@@ -0,0 +1,438 @@
+import java.util.SplittableRandom;
+
+/**
+ * The BigTwoState class is a compact, mutable position of a game of Big Two for search algorithms.
+ *
+ * <p>A position is the mask of the cards held by each player (see {@link HandClassifier}), the player
+ * to move, the comparison key of the hand to beat and the number of passes since it was played.
+ * {@link #apply(long)} makes a move and {@link #undo()} takes back the last move, both in constant time
+ * and without allocating: what a move overwrites is pushed on a stack of primitive arrays sized for the
+ * longest possible game. A search makes and takes back millions of moves on one state instead of copying
+ * the players, their cards and the hands on the table.</p>
+ *
+ * <p>Every position has a Zobrist hash of who holds each card, the player to move and the hand to beat,
+ * kept up to date by {@link #apply(long)} and {@link #undo()} so that a search can look positions up
+ * in a {@link TranspositionTable}.</p>
+ *
+ * <p>A move is the mask of the cards played, or 0 for a pass. {@link #apply(long)} trusts its move; use
+ * {@link #isLegal(long)} or {@link #getLegalMoves(LegalMoveGenerator)} to check or enumerate moves.</p>
+ *
+ * @author Liu Yantong
+ */
+public class BigTwoState {
+	/**
+	 * The longest possible game, in moves: every card played on its own and passed by the three other players.
+	 */
+	public static final int MAX_PLY = 4 * 52;
+
+	private static final int NUM_OF_PLAYERS = BigTwoEngine.NUM_OF_PLAYERS;
+
+	/**
+	 * The mask of the Three of Diamonds, which the first hand of a game must contain.
+	 */
+	private static final long THREE_OF_DIAMONDS = 1L;
+
+	/**
+	 * The mask of the 52 cards.
+	 */
+	private static final long ALL_CARDS = (1L << 52) - 1;
+
+	// the Zobrist keys of each card held by each player, of the player to move, of the number of passes
+	// since the hand to beat was played, and of a player leading
+	private static final long[] CARD_KEYS = new long[NUM_OF_PLAYERS * 52];
+	private static final long[] PLAYER_KEYS = new long[NUM_OF_PLAYERS];
+	private static final long[] PASS_KEYS = new long[NUM_OF_PLAYERS];
+	private static final long LEADING_KEY;
+
+	static {
+		SplittableRandom random = new SplittableRandom(0x5DEECE66DL);
+		for (int i = 0; i < CARD_KEYS.length; i++) {
+			CARD_KEYS[i] = random.nextLong();
+		}
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			PLAYER_KEYS[i] = random.nextLong();
+			PASS_KEYS[i] = random.nextLong();
+		}
+		LEADING_KEY = random.nextLong();
+	}
+
+	private final BigTwoRules rules;
+	private final long[] holdings = new long[NUM_OF_PLAYERS];
+	private long played;
+	private int currentPlayer;
+	private long lastKey;
+	private int passCount;
+	private long hash;
+
+	// the moves made, and the player, key, pass count and hash each of them replaced
+	private final long[] moveStack = new long[MAX_PLY];
+	private final long[] hashStack = new long[MAX_PLY];
+	private final long[] keyStack = new long[MAX_PLY];
+	private final byte[] playerStack = new byte[MAX_PLY];
+	private final byte[] passStack = new byte[MAX_PLY];
+	private int ply;
+
+	/**
+	 * Creates the position at the start of a game.
+	 *
+	 * @param holdings the masks of the cards dealt to each player
+	 * @param rules the rules hands are classified and compared by
+	 * @throws IllegalArgumentException if there are not four holdings or no one holds the Three of Diamonds
+	 */
+	public BigTwoState(long[] holdings, BigTwoRules rules) {
+		if (holdings.length != NUM_OF_PLAYERS) {
+			throw new IllegalArgumentException("Expected " + NUM_OF_PLAYERS + " holdings");
+		}
+		this.rules = rules;
+		this.currentPlayer = -1;
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			this.holdings[i] = holdings[i];
+			if ((holdings[i] & THREE_OF_DIAMONDS) != 0) {
+				this.currentPlayer = i;
+			}
+		}
+		if (currentPlayer < 0) {
+			throw new IllegalArgumentException("No one holds the Three of Diamonds");
+		}
+		this.hash = computeHash();
+	}
+
+	/**
+	 * Creates the current position of a game run by an engine.
+	 *
+	 * @param engine the engine of the game, which must have been started
+	 * @throws IllegalStateException if no game has been started
+	 */
+	public BigTwoState(BigTwoEngine engine) {
+		if (engine.getCurrentPlayerIdx() < 0) {
+			throw new IllegalStateException("No game has been started");
+		}
+		this.rules = engine.getRules();
+		long held = 0L;
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			holdings[i] = engine.getPlayerList().get(i).getCardMask();
+			held |= holdings[i];
+		}
+		this.played = ~held & ALL_CARDS;
+		this.currentPlayer = engine.getCurrentPlayerIdx();
+		TrickLog log = engine.getTrickLog();
+		if (!log.isEmpty()) {
+			int lastPlayer = log.getLastSeat();
+			this.lastKey = log.getLastKey();
+			// the winner of a game made the last move, which no one passed
+			this.passCount = isGameOver() ? 0 : (currentPlayer - lastPlayer + NUM_OF_PLAYERS - 1) % NUM_OF_PLAYERS;
+		}
+		this.hash = computeHash();
+	}
+
+	/**
+	 * Creates the current position of a game of Big Two.
+	 *
+	 * @param game the game, which must have been started
+	 * @throws IllegalStateException if no game has been started
+	 */
+	public BigTwoState(BigTwo game) {
+		this(game.getEngine());
+	}
+
+	/**
+	 * Creates the position seen by a seat. The seat holds its own cards; the cards it has not seen are dealt to
+	 * the opponents in seat order, in the numbers they hold, as a placeholder to be replaced by a guess with
+	 * {@link #setHolding(int, long)}.
+	 *
+	 * @param view the view of the seat
+	 */
+	public BigTwoState(BigTwoView view) {
+		this.rules = view.getRules();
+		this.played = view.getPlayed();
+		this.currentPlayer = view.getCurrentPlayer();
+		long unseen = ALL_CARDS & ~played & ~view.getHolding();
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			if (i == view.getSeat()) {
+				holdings[i] = view.getHolding();
+				continue;
+			}
+			for (int n = view.getNumOfCards(i); n > 0 && unseen != 0L; n--) {
+				holdings[i] |= unseen & -unseen;
+				unseen &= unseen - 1;
+			}
+		}
+		if (view.getLastPlayer() >= 0) {
+			this.lastKey = view.getLastKey();
+			this.passCount = isGameOver() ? 0 : (currentPlayer - view.getLastPlayer() + NUM_OF_PLAYERS - 1) % NUM_OF_PLAYERS;
+		}
+		this.hash = computeHash();
+	}
+
+	/**
+	 * Creates a copy of a position, without the moves that led to it: the copy cannot undo them.
+	 *
+	 * @param state the position to be copied
+	 */
+	public BigTwoState(BigTwoState state) {
+		this.rules = state.rules;
+		System.arraycopy(state.holdings, 0, this.holdings, 0, NUM_OF_PLAYERS);
+		this.played = state.played;
+		this.currentPlayer = state.currentPlayer;
+		this.lastKey = state.lastKey;
+		this.passCount = state.passCount;
+		this.hash = state.hash;
+	}
+
+	/**
+	 * Get the rules of the game.
+	 *
+	 * @return the rules hands are classified and compared by
+	 */
+	public BigTwoRules getRules() {
+		return rules;
+	}
+
+	/**
+	 * Get the cards held by a player.
+	 *
+	 * @param playerIdx the index of the player
+	 * @return the mask of the cards held by the player
+	 */
+	public long getHolding(int playerIdx) {
+		return holdings[playerIdx];
+	}
+
+	/**
+	 * Replaces the cards held by a player, for example with a guess of the cards of an opponent.
+	 * The moves made so far can still be undone; the cards they played are returned to the new holding.
+	 *
+	 * @param playerIdx the index of the player
+	 * @param holding the mask of the cards held by the player
+	 */
+	public void setHolding(int playerIdx, long holding) {
+		hash ^= holdingHash(playerIdx, holdings[playerIdx]) ^ holdingHash(playerIdx, holding);
+		holdings[playerIdx] = holding;
+	}
+
+	/**
+	 * Get the cards played so far.
+	 *
+	 * @return the mask of the cards no longer held by anyone
+	 */
+	public long getPlayed() {
+		return played;
+	}
+
+	/**
+	 * Get the index of the player to move, or of the winner once the game has ended.
+	 *
+	 * @return the index of the current player
+	 */
+	public int getCurrentPlayer() {
+		return currentPlayer;
+	}
+
+	/**
+	 * Get the comparison key of the hand to beat.
+	 *
+	 * @return the key of the last hand on the table (see {@link Hand#getKey()}), or 0 if the current player leads
+	 */
+	public long getLastKey() {
+		return isLeading() ? 0L : lastKey;
+	}
+
+	/**
+	 * Get the number of players who passed since the last hand was played.
+	 *
+	 * @return the number of passes, 3 when the player of the last hand leads again
+	 */
+	public int getPassCount() {
+		return passCount;
+	}
+
+	/**
+	 * Get the Zobrist hash of this position. Positions with the same cards held by each player, the same
+	 * player to move and the same hand to beat have the same hash, whatever the moves that led to them.
+	 *
+	 * @return the hash of this position
+	 */
+	public long getHash() {
+		return hash;
+	}
+
+	/**
+	 * Get the number of moves made on this state that can be undone.
+	 *
+	 * @return the number of moves
+	 */
+	public int getPly() {
+		return ply;
+	}
+
+	/**
+	 * Returns whether the current player leads, that is plays the first hand of the game or of a trick.
+	 *
+	 * @return true if the current player may play any valid hand
+	 */
+	public boolean isLeading() {
+		return lastKey == 0L || passCount == NUM_OF_PLAYERS - 1;
+	}
+
+	/**
+	 * Returns whether the current player may pass.
+	 *
+	 * @return true if the current player does not lead
+	 */
+	public boolean canPass() {
+		return !isLeading();
+	}
+
+	/**
+	 * Returns whether the game has ended, that is whether the last player to move has played all of their cards.
+	 *
+	 * @return true if the game has ended
+	 */
+	public boolean isGameOver() {
+		return holdings[currentPlayer] == 0L;
+	}
+
+	/**
+	 * Returns the winner of the game.
+	 *
+	 * @return the index of the winner, or -1 if the game has not ended
+	 */
+	public int getWinner() {
+		return isGameOver() ? currentPlayer : -1;
+	}
+
+	/**
+	 * Resets a generator to the legal plays of the current player. Passing is legal whenever {@link #canPass()}.
+	 *
+	 * @param moves a generator built for the rules of this state
+	 * @return the generator, reset to the legal plays of the current player
+	 */
+	public LegalMoveGenerator getLegalMoves(LegalMoveGenerator moves) {
+		moves.reset(holdings[currentPlayer], getLastKey(), played == 0L ? THREE_OF_DIAMONDS : 0L);
+		return moves;
+	}
+
+	/**
+	 * Checks if a move is legal for the current player.
+	 *
+	 * @param move the mask of the cards to play, or 0 to pass
+	 * @return true if the move is legal
+	 */
+	public boolean isLegal(long move) {
+		if (isGameOver()) {
+			return false;
+		}
+		if (move == 0L) {
+			return canPass();
+		}
+		if ((move & ~holdings[currentPlayer]) != 0L || (played == 0L && (move & THREE_OF_DIAMONDS) == 0L)) {
+			return false;
+		}
+		long key = keyOf(move);
+		long toBeat = getLastKey();
+		return key != 0L && (toBeat == 0L || (HandClassifier.sizeOfKey(key) == HandClassifier.sizeOfKey(toBeat) && key > toBeat));
+	}
+
+	/**
+	 * Makes a move for the current player: plays the cards of the move, or passes if the move is 0.
+	 * The move is not checked.
+	 *
+	 * @param move the mask of the cards to play, or 0 to pass
+	 * @throws IllegalStateException if the game is longer than {@link #MAX_PLY} moves
+	 */
+	public void apply(long move) {
+		if (ply == MAX_PLY) {
+			throw new IllegalStateException("Too many moves");
+		}
+		moveStack[ply] = move;
+		hashStack[ply] = hash;
+		keyStack[ply] = lastKey;
+		playerStack[ply] = (byte) currentPlayer;
+		passStack[ply] = (byte) passCount;
+		ply++;
+
+		hash ^= turnHash();
+		if (move == 0L) {
+			passCount++;
+		}
+		else {
+			hash ^= holdingHash(currentPlayer, move);
+			holdings[currentPlayer] &= ~move;
+			played |= move;
+			lastKey = keyOf(move);
+			passCount = 0;
+		}
+		// the winner stays the current player
+		if (holdings[currentPlayer] != 0L) {
+			currentPlayer = (currentPlayer + 1) % NUM_OF_PLAYERS;
+		}
+		hash ^= turnHash();
+	}
+
+	/**
+	 * Takes back the last move made by {@link #apply(long)}.
+	 *
+	 * @throws IllegalStateException if there is no move to take back
+	 */
+	public void undo() {
+		if (ply == 0) {
+			throw new IllegalStateException("No move to undo");
+		}
+		ply--;
+		long move = moveStack[ply];
+		currentPlayer = playerStack[ply];
+		lastKey = keyStack[ply];
+		passCount = passStack[ply];
+		holdings[currentPlayer] |= move;
+		played &= ~move;
+		hash = hashStack[ply];
+	}
+
+	/**
+	 * Returns the comparison key of a play under the rules of this state.
+	 *
+	 * @param move the mask of the cards of the play
+	 * @return the comparison key of the play, or 0 if the cards do not make a valid hand
+	 */
+	public long keyOf(long move) {
+		int code = rules.classify(move);
+		int type = HandClassifier.typeOf(code);
+		return type == HandClassifier.INVALID ? 0L : rules.key(type, HandClassifier.topOf(code));
+	}
+
+	/**
+	 * Computes the hash of this position from scratch.
+	 */
+	private long computeHash() {
+		long h = turnHash();
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			h ^= holdingHash(i, holdings[i]);
+		}
+		return h;
+	}
+
+	/**
+	 * Returns the part of the hash given by the player to move and the hand to beat. A leading player
+	 * may play anything, so the hand last played and the passes since are left out.
+	 */
+	private long turnHash() {
+		if (isLeading()) {
+			return PLAYER_KEYS[currentPlayer] ^ LEADING_KEY;
+		}
+		// the key of a hand is a small number, mixed so that every bit of the hash depends on it
+		long z = lastKey * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		return PLAYER_KEYS[currentPlayer] ^ PASS_KEYS[passCount] ^ z ^ (z >>> 31);
+	}
+
+	/**
+	 * Returns the part of the hash given by the cards of a mask held by a player.
+	 */
+	private static long holdingHash(int playerIdx, long mask) {
+		long h = 0L;
+		for (long m = mask; m != 0; m &= m - 1) {
+			h ^= CARD_KEYS[playerIdx * 52 + Long.numberOfTrailingZeros(m)];
+		}
+		return h;
+	}
+}
@@ -0,0 +1,309 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.zip.CRC32;
+
+/**
+ * The BigTwoTournament class plays a round robin between agents run by the computer on a fixed set of deals,
+ * to tell which agent plays best.
+ *
+ * <p>Every deal is played once for every lineup: every way of seating the agents in the four seats, the same
+ * agent possibly in several seats, except the lineups of a single agent. Each agent therefore meets every
+ * other agent from every seat on the same cards, which removes most of the luck of the deal. A deal is given
+ * by a seed: the deck is shuffled from it and the agents of each game draw their random numbers from it and
+ * the number of the lineup.</p>
+ *
+ * <p>The games are played in parallel on a {@link ForkJoinPool}, each worker thread with its own engine and
+ * agents, and the cards left to each seat of each game are stored by the number of the game. The results
+ * only depend on the seeds, not on the number of threads or the order the games finished in, as long as
+ * the agents are deterministic: time-budgeted searches are not, so use {@code ismcts:n} instead of
+ * {@code ismcts}. A checksum of the results is printed to compare runs.</p>
+ *
+ * <pre>
+ * java BigTwoTournament --agents a,b,... [--deals n] [--seed s | --seeds file] [--threads n] [--low-straights] [--flush-by-rank]
+ * </pre>
+ *
+ * @author Liu Yantong
+ */
+public class BigTwoTournament {
+	private static final int NUM_OF_PLAYERS = BigTwoEngine.NUM_OF_PLAYERS;
+
+	/**
+	 * The largest number of games played by one task without being split.
+	 */
+	private static final int BATCH = 64;
+
+	/**
+	 * The quantile of the normal distribution for 95% confidence intervals.
+	 */
+	private static final double Z = 1.96;
+
+	private final String[] agentNames;
+	private final BigTwoRules rules;
+	private final long[] seeds;
+	// the agent of each seat of each lineup
+	private final int[][] lineups;
+	// the cards left to each seat of each game, the game of deal d and lineup l being d * lineups + l
+	private final byte[] cardsLeft;
+
+	// the engine and agents of each worker thread
+	private final ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new);
+
+	/**
+	 * Constructs a tournament.
+	 *
+	 * @param agentNames the names of the agents (see {@link BigTwoAgent#create(String)}), at least two
+	 * @param rules the rules the games are played by
+	 * @param seeds the seeds of the deals
+	 * @throws IllegalArgumentException if there are fewer than two agents or an agent is unknown
+	 */
+	public BigTwoTournament(String[] agentNames, BigTwoRules rules, long[] seeds) {
+		if (agentNames.length < 2) {
+			throw new IllegalArgumentException("A tournament needs at least two agents");
+		}
+		for (String name : agentNames) {
+			BigTwoAgent.create(name);
+		}
+		this.agentNames = agentNames.clone();
+		this.rules = rules;
+		this.seeds = seeds.clone();
+
+		ArrayList<int[]> list = new ArrayList<int[]>();
+		int n = agentNames.length;
+		for (int code = 0; code < n * n * n * n; code++) {
+			int[] lineup = { code % n, code / n % n, code / (n * n) % n, code / (n * n * n) };
+			if (lineup[0] != lineup[1] || lineup[0] != lineup[2] || lineup[0] != lineup[3]) {
+				list.add(lineup);
+			}
+		}
+		this.lineups = list.toArray(new int[0][]);
+		this.cardsLeft = new byte[seeds.length * lineups.length * NUM_OF_PLAYERS];
+	}
+
+	/**
+	 * Main method to run a tournament and print its results.
+	 *
+	 * @param args the options: {@code --agents} the comma-separated agents, {@code --deals} the number of deals
+	 *             (default 100) drawn from {@code --seed} (default 1), or {@code --seeds} a file of seeds, one
+	 *             per line; {@code --threads} the parallelism (default the number of processors), and the house
+	 *             rules {@code --low-straights} and {@code --flush-by-rank}
+	 * @throws IOException if the file of seeds cannot be read
+	 */
+	public static void main(String[] args) throws IOException {
+		String[] agentNames = { "random", "greedy" };
+		int deals = 100;
+		long seed = 1;
+		long[] seeds = null;
+		int threads = Runtime.getRuntime().availableProcessors();
+		boolean lowStraights = false;
+		boolean flushBySuit = true;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+			case "--agents":
+				agentNames = args[++i].split(",");
+				break;
+			case "--deals":
+				deals = Integer.parseInt(args[++i]);
+				break;
+			case "--seed":
+				seed = Long.parseLong(args[++i]);
+				break;
+			case "--seeds":
+				seeds = readSeeds(args[++i]);
+				break;
+			case "--threads":
+				threads = Integer.parseInt(args[++i]);
+				break;
+			case "--low-straights":
+				lowStraights = true;
+				break;
+			case "--flush-by-rank":
+				flushBySuit = false;
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown option: " + args[i]);
+			}
+		}
+		if (seeds == null) {
+			SplittableRandom random = new SplittableRandom(seed);
+			seeds = new long[deals];
+			for (int i = 0; i < deals; i++) {
+				seeds[i] = random.nextLong();
+			}
+		}
+		BigTwoRules rules = lowStraights || !flushBySuit
+				? new BigTwoRules(lowStraights, flushBySuit, BigTwoRules.STANDARD.getFiveCardOrder())
+				: BigTwoRules.STANDARD;
+
+		BigTwoTournament tournament = new BigTwoTournament(agentNames, rules, seeds);
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		long start = System.nanoTime();
+		try {
+			tournament.run(pool);
+		}
+		finally {
+			pool.shutdown();
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d deals x %d lineups = %d games, %d threads, %.2f s, %.0f games/s%n", seeds.length,
+				tournament.lineups.length, tournament.getNumOfGames(), threads, seconds,
+				tournament.getNumOfGames() / seconds);
+		tournament.print();
+	}
+
+	/**
+	 * Reads seeds from a file, one per line; blank lines and lines starting with # are skipped.
+	 */
+	private static long[] readSeeds(String path) throws IOException {
+		List<String> lines = Files.readAllLines(Paths.get(path));
+		long[] seeds = new long[lines.size()];
+		int n = 0;
+		for (String line : lines) {
+			line = line.trim();
+			if (!line.isEmpty() && !line.startsWith("#")) {
+				seeds[n++] = Long.parseLong(line);
+			}
+		}
+		return Arrays.copyOf(seeds, n);
+	}
+
+	/**
+	 * Returns the number of games of this tournament: one per deal and lineup.
+	 *
+	 * @return the number of games
+	 */
+	public int getNumOfGames() {
+		return seeds.length * lineups.length;
+	}
+
+	/**
+	 * Plays every game of the tournament.
+	 *
+	 * @param pool the pool the games are played on
+	 */
+	public void run(ForkJoinPool pool) {
+		pool.invoke(new Games(0, getNumOfGames()));
+	}
+
+	/**
+	 * Returns a checksum of the results: two runs with the same agents, rules and seeds have the same checksum.
+	 *
+	 * @return the CRC-32 of the cards left to each seat of each game
+	 */
+	public long getChecksum() {
+		CRC32 crc = new CRC32();
+		crc.update(cardsLeft, 0, cardsLeft.length);
+		return crc.getValue();
+	}
+
+	/**
+	 * Prints the win rate and the average number of cards left of each agent, with 95% confidence intervals.
+	 */
+	private void print() {
+		int n = agentNames.length;
+		long[] seats = new long[n];
+		long[] wins = new long[n];
+		long[] cards = new long[n];
+		long[] squares = new long[n];
+		for (int game = 0; game < getNumOfGames(); game++) {
+			int[] lineup = lineups[game % lineups.length];
+			for (int seat = 0; seat < NUM_OF_PLAYERS; seat++) {
+				int agent = lineup[seat];
+				int left = cardsLeft[game * NUM_OF_PLAYERS + seat];
+				seats[agent]++;
+				wins[agent] += left == 0 ? 1 : 0;
+				cards[agent] += left;
+				squares[agent] += left * left;
+			}
+		}
+		System.out.printf("%-16s %8s %18s %18s%n", "Agent", "Seats", "Win rate", "Cards left");
+		for (int i = 0; i < n; i++) {
+			double p = (double) wins[i] / seats[i];
+			double mean = (double) cards[i] / seats[i];
+			double variance = seats[i] > 1 ? (squares[i] - seats[i] * mean * mean) / (seats[i] - 1) : 0;
+			System.out.printf("%-16s %8d %8.2f%% +-%5.2f%% %9.2f +-%5.2f%n", agentNames[i], seats[i], 100 * p,
+					100 * Z * Math.sqrt(p * (1 - p) / seats[i]), mean, Z * Math.sqrt(variance / seats[i]));
+		}
+		System.out.printf("Checksum %08x%n", getChecksum());
+	}
+
+	/**
+	 * A range of games, split in halves until it is small enough to be played by one worker.
+	 */
+	private class Games extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final int from;
+		private final int to;
+
+		Games(int from, int to) {
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > BATCH) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new Games(from, middle), new Games(middle, to));
+				return;
+			}
+			Worker worker = workers.get();
+			for (int game = from; game < to; game++) {
+				worker.play(game);
+			}
+		}
+	}
+
+	/**
+	 * The engine, deck and agents of a worker thread.
+	 */
+	private class Worker {
+		private final BigTwoEngine engine = new BigTwoEngine();
+		private final BigTwoDeck deck = new BigTwoDeck();
+		// an instance of every agent for every seat, so that agents keeping state do not share it
+		private final BigTwoAgent[][] agents = new BigTwoAgent[NUM_OF_PLAYERS][agentNames.length];
+		private final LegalMoveGenerator generator = new LegalMoveGenerator(rules);
+
+		Worker() {
+			for (int seat = 0; seat < NUM_OF_PLAYERS; seat++) {
+				for (int i = 0; i < agentNames.length; i++) {
+					agents[seat][i] = BigTwoAgent.create(agentNames[i]);
+				}
+			}
+			engine.setRules(rules);
+		}
+
+		/**
+		 * Deals and plays one game to the end, and stores the cards left to each seat.
+		 */
+		void play(int game) {
+			long seed = seeds[game / lineups.length];
+			int[] lineup = lineups[game % lineups.length];
+			deck.initialize();
+			deck.shuffle(seed);
+			// the same deal for every lineup, but different moves
+			SplittableRandom random = new SplittableRandom(seed + (game % lineups.length + 1) * 0x9E3779B97F4A7C15L);
+
+			engine.start(deck);
+			while (!engine.endOfGame()) {
+				int playerIdx = engine.getCurrentPlayerIdx();
+				BigTwoAgent agent = agents[playerIdx][lineup[playerIdx]];
+				BigTwoView view = new BigTwoView(engine, playerIdx);
+				long move = agent.chooseMove(view, view.getLegalMoves(generator), random);
+				if (!engine.play(playerIdx, view.toCardIdx(move))) {
+					throw new IllegalStateException("Agent " + agentNames[lineup[playerIdx]]
+							+ " made an illegal move in game " + game);
+				}
+			}
+			for (int seat = 0; seat < NUM_OF_PLAYERS; seat++) {
+				cardsLeft[game * NUM_OF_PLAYERS + seat] = (byte) engine.getPlayerList().get(seat).getNumOfCards();
+			}
+		}
+	}
+}
@@ -0,0 +1,214 @@
+/**
+ * The BigTwoView class is an immutable view of a game of Big Two as seen from one seat: the cards of the
+ * seat, the cards played so far, the last hand on the table and the number of cards held by each player.
+ *
+ * <p>A view is what a {@link BigTwoAgent} decides its move from. It is taken from a {@link BigTwoEngine}
+ * and does not change with it, so it can be handed to an agent running on another thread, and it holds
+ * nothing the seat could not see at the table. Cards are given as card masks (see {@link HandClassifier});
+ * {@link #toCardIdx(long)} turns a play into the card indices expected by {@link BigTwo#makeMove(int, int[])}.</p>
+ *
+ * @author Liu Yantong
+ */
+public final class BigTwoView {
+	private static final int NUM_OF_PLAYERS = BigTwoEngine.NUM_OF_PLAYERS;
+
+	/**
+	 * The mask of the Three of Diamonds, which the first hand of a game must contain.
+	 */
+	private static final long THREE_OF_DIAMONDS = 1L;
+
+	private final int seat;
+	private final int currentPlayer;
+	private final long holding;
+	private final long played;
+	private final long lastHand;
+	private final long lastKey;
+	private final int lastPlayer;
+	private final int[] counts = new int[NUM_OF_PLAYERS];
+	private final BigTwoRules rules;
+
+	/**
+	 * Takes the view of a seat of the game run by an engine.
+	 *
+	 * @param engine the engine of the game
+	 * @param seat the index of the player whose view is taken
+	 */
+	public BigTwoView(BigTwoEngine engine, int seat) {
+		this.seat = seat;
+		this.currentPlayer = engine.getCurrentPlayerIdx();
+		this.rules = engine.getRules();
+		long held = 0L;
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			CardGamePlayer player = engine.getPlayerList().get(i);
+			counts[i] = player.getNumOfCards();
+			held |= player.getCardMask();
+		}
+		this.holding = engine.getPlayerList().get(seat).getCardMask();
+		this.played = ~held & ((1L << 52) - 1);
+		TrickLog log = engine.getTrickLog();
+		this.lastHand = log.getLastMask();
+		this.lastKey = log.getLastKey();
+		this.lastPlayer = log.getLastSeat();
+	}
+
+	/**
+	 * Get the seat of this view.
+	 *
+	 * @return the index of the player whose view this is
+	 */
+	public int getSeat() {
+		return seat;
+	}
+
+	/**
+	 * Get the index of the player to move.
+	 *
+	 * @return the index of the current player
+	 */
+	public int getCurrentPlayer() {
+		return currentPlayer;
+	}
+
+	/**
+	 * Get the cards held by the seat.
+	 *
+	 * @return the mask of the cards of the seat
+	 */
+	public long getHolding() {
+		return holding;
+	}
+
+	/**
+	 * Get a copy of the cards held by the seat, in the order of the card indices of the seat.
+	 *
+	 * @return a new list of the cards of the seat
+	 */
+	public CardList getCardsInHand() {
+		return new BigTwoCardList(holding);
+	}
+
+	/**
+	 * Get the cards played so far.
+	 *
+	 * @return the mask of the cards played
+	 */
+	public long getPlayed() {
+		return played;
+	}
+
+	/**
+	 * Get the cards of the last hand on the table.
+	 *
+	 * @return the mask of the cards of the last hand, or 0 if the table is empty
+	 */
+	public long getLastHand() {
+		return lastHand;
+	}
+
+	/**
+	 * Get the comparison key of the last hand on the table.
+	 *
+	 * @return the key of the last hand (see {@link Hand#getKey()}), or 0 if the table is empty
+	 */
+	public long getLastKey() {
+		return lastKey;
+	}
+
+	/**
+	 * Get the player of the last hand on the table.
+	 *
+	 * @return the index of the player of the last hand, or -1 if the table is empty
+	 */
+	public int getLastPlayer() {
+		return lastPlayer;
+	}
+
+	/**
+	 * Get the number of cards held by a player.
+	 *
+	 * @param playerIdx the index of the player
+	 * @return the number of cards held
+	 */
+	public int getNumOfCards(int playerIdx) {
+		return counts[playerIdx];
+	}
+
+	/**
+	 * Get the rules of the game.
+	 *
+	 * @return the rules hands are classified and compared by
+	 */
+	public BigTwoRules getRules() {
+		return rules;
+	}
+
+	/**
+	 * Returns whether the seat leads: plays the first hand of the game, or a new trick after everyone else passed.
+	 *
+	 * @return true if the seat may play any valid hand
+	 */
+	public boolean isLeading() {
+		return lastPlayer < 0 || lastPlayer == seat;
+	}
+
+	/**
+	 * Returns whether the seat may pass.
+	 *
+	 * @return true if the seat does not lead
+	 */
+	public boolean canPass() {
+		return !isLeading();
+	}
+
+	/**
+	 * Resets a generator to the legal plays of the seat. Passing is legal whenever {@link #canPass()}.
+	 *
+	 * @param moves a generator built for the rules of this view
+	 * @return the generator, reset to the legal plays of the seat
+	 */
+	public LegalMoveGenerator getLegalMoves(LegalMoveGenerator moves) {
+		moves.reset(holding, isLeading() ? 0L : lastKey, played == 0L ? THREE_OF_DIAMONDS : 0L);
+		return moves;
+	}
+
+	/**
+	 * Checks if a move is legal for the seat, assuming it is the turn of the seat.
+	 *
+	 * @param move the mask of the cards to play, or 0 to pass
+	 * @return true if the move is legal
+	 */
+	public boolean isLegal(long move) {
+		if (move == 0L) {
+			return canPass();
+		}
+		if ((move & ~holding) != 0L || (played == 0L && (move & THREE_OF_DIAMONDS) == 0L)) {
+			return false;
+		}
+		int code = rules.classify(move);
+		int type = HandClassifier.typeOf(code);
+		if (type == HandClassifier.INVALID) {
+			return false;
+		}
+		long key = rules.key(type, HandClassifier.topOf(code));
+		return isLeading() || (HandClassifier.sizeOfKey(key) == HandClassifier.sizeOfKey(lastKey) && key > lastKey);
+	}
+
+	/**
+	 * Converts a play into the indices of its cards among the cards of the seat, as expected by
+	 * {@link BigTwo#makeMove(int, int[])}.
+	 *
+	 * @param move the mask of the cards of the play, which the seat must hold
+	 * @return the indices of the cards of the play in ascending order, or null for a pass
+	 */
+	public int[] toCardIdx(long move) {
+		if (move == 0L) {
+			return null;
+		}
+		int[] cardIdx = new int[Long.bitCount(move)];
+		int count = 0;
+		for (long m = move; m != 0; m &= m - 1) {
+			cardIdx[count++] = Long.bitCount(holding & ((m & -m) - 1));
+		}
+		return cardIdx;
+	}
+}
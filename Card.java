@@ -91,19 +91,26 @@ public class Card implements Comparable<Card>, Serializable {
 	 * Indicates whether the specified card is "equal to" this one.
 	 * 
 	 * @param card the reference object with which to compare
-	 * @return true if this card has the same rank and suit as the specified card;
-	 *         false otherwise
+	 * @return true if the specified object is a card with the same rank and suit as
+	 *         this card; false otherwise
 	 */
 	public boolean equals(Object card) {
+		if (this == card) {
+			return true;
+		}
+		if (!(card instanceof Card)) {
+			return false;
+		}
 		return (this.rank == ((Card) card).getRank() && suit == ((Card) card).getSuit());
 	}
 
 	/**
-	 * Returns a hash code value for the card.
+	 * Returns a hash code value for the card. Each of the 52 cards has its own hash
+	 * code, between 0 and 51.
 	 * 
 	 * @return a hash code value for the card
 	 */
 	public int hashCode() {
-		return rank;
+		return suit * 13 + rank;
 	}
 }
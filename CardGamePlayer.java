@@ -6,7 +6,12 @@
 public class CardGamePlayer {
 	private static int playerId = 0;
 	private String name = "";
-	private CardList cardsInHand = new CardList();
+	// the cards held, kept as a mask with one bit per card ordinal (see HandClassifier)
+	private final BigTwoCardList cardsInHand = new BigTwoCardList();
+	// number of cards held of each rank, indexed by Big Two rank (3 = 0, ..., 2 = 12)
+	private final int[] rankCounts = new int[13];
+	// ranks held in each suit, one bit per Big Two rank
+	private final int[] suitMasks = new int[4];
 
 	/**
 	 * Creates and returns an instance of the Player class.
@@ -50,7 +55,12 @@ public class CardGamePlayer {
 	 */
 	public void addCard(Card card) {
 		if (card != null) {
-			cardsInHand.addCard(card);
+			int ordinal = HandClassifier.ordinal(card);
+			if (!cardsInHand.contains(card)) {
+				cardsInHand.addCard(card);
+				rankCounts[ordinal >> 2]++;
+				suitMasks[ordinal & 3] |= 1 << (ordinal >> 2);
+			}
 		}
 	}
 
@@ -61,7 +71,12 @@ public class CardGamePlayer {
 	 */
 	public void removeCards(CardList cards) {
 		for (int i = 0; i < cards.size(); i++) {
-			cardsInHand.removeCard(cards.getCard(i));
+			Card card = cards.getCard(i);
+			if (cardsInHand.removeCard(card)) {
+				int ordinal = HandClassifier.ordinal(card);
+				rankCounts[ordinal >> 2]--;
+				suitMasks[ordinal & 3] &= ~(1 << (ordinal >> 2));
+			}
 		}
 	}
 
@@ -69,7 +84,119 @@ public class CardGamePlayer {
 	 * Removes all cards from this player.
 	 */
 	public void removeAllCards() {
-		cardsInHand = new CardList();
+		cardsInHand.removeAllCards();
+		for (int i = 0; i < rankCounts.length; i++) {
+			rankCounts[i] = 0;
+		}
+		for (int i = 0; i < suitMasks.length; i++) {
+			suitMasks[i] = 0;
+		}
+	}
+
+	/**
+	 * Returns the mask of the cards held by this player, one bit per card
+	 * ordinal as defined in HandClassifier.
+	 * 
+	 * @return the mask of the cards held by this player
+	 */
+	public long getCardMask() {
+		return cardsInHand.getMask();
+	}
+
+	/**
+	 * Returns true if this player holds the specified card.
+	 * 
+	 * @param card the card to be tested
+	 * @return true if this player holds the card; otherwise false
+	 */
+	public boolean holds(Card card) {
+		return cardsInHand.contains(card);
+	}
+
+	/**
+	 * Returns the number of cards of the specified rank held by this player.
+	 * 
+	 * @param rank an int value between 0 and 12 representing the rank, as
+	 *             returned by Card.getRank()
+	 * @return the number of cards of the rank held by this player
+	 */
+	public int getRankCount(int rank) {
+		return rankCounts[(rank + 11) % 13];
+	}
+
+	/**
+	 * Returns the ranks held by this player in the specified suit.
+	 * 
+	 * @param suit an int value between 0 and 3 representing the suit
+	 * @return a mask with one bit per rank held in the suit, bit 0 being the
+	 *         Three and bit 12 the Two
+	 */
+	public int getSuitMask(int suit) {
+		return suitMasks[suit];
+	}
+
+	/**
+	 * Returns true if this player holds a pair of the specified rank.
+	 * 
+	 * @param rank the rank, as returned by Card.getRank()
+	 * @return true if this player holds at least two cards of the rank
+	 */
+	public boolean hasPair(int rank) {
+		return getRankCount(rank) >= 2;
+	}
+
+	/**
+	 * Returns true if this player holds a triple of the specified rank.
+	 * 
+	 * @param rank the rank, as returned by Card.getRank()
+	 * @return true if this player holds at least three cards of the rank
+	 */
+	public boolean hasTriple(int rank) {
+		return getRankCount(rank) >= 3;
+	}
+
+	/**
+	 * Returns true if this player holds all four cards of the specified rank.
+	 * 
+	 * @param rank the rank, as returned by Card.getRank()
+	 * @return true if this player holds the four cards of the rank
+	 */
+	public boolean hasQuad(int rank) {
+		return getRankCount(rank) == 4;
+	}
+
+	/**
+	 * Returns true if this player holds five cards of the same suit. The house
+	 * rules of BigTwoRules only change how such cards are ranked, so this holds
+	 * under any rules.
+	 * 
+	 * @return true if this player can make a flush
+	 */
+	public boolean hasFlush() {
+		return Integer.bitCount(suitMasks[0]) >= 5 || Integer.bitCount(suitMasks[1]) >= 5
+				|| Integer.bitCount(suitMasks[2]) >= 5 || Integer.bitCount(suitMasks[3]) >= 5;
+	}
+
+	/**
+	 * Returns true if this player holds five cards of consecutive ranks in the
+	 * Big Two order (from 3-4-5-6-7 up to J-Q-K-A-2), as under the standard
+	 * rules.
+	 * 
+	 * @return true if this player can make a straight under the standard rules
+	 */
+	public boolean hasStraight() {
+		return hasStraight(BigTwoRules.STANDARD);
+	}
+
+	/**
+	 * Returns true if this player holds five cards making a straight under the
+	 * specified rules, which may allow A-2-3-4-5 and 2-3-4-5-6.
+	 * 
+	 * @param rules the rules straights are made by
+	 * @return true if this player can make a straight under the rules
+	 */
+	public boolean hasStraight(BigTwoRules rules) {
+		return rules.containsStraight(suitMasks[0] | suitMasks[1] | suitMasks[2] | suitMasks[3]);
 	}
 
 	/**
@@ -82,14 +209,15 @@ public class CardGamePlayer {
 	}
 
 	/**
-	 * Sorts the list of cards held by this player.
+	 * Sorts the list of cards held by this player. The cards are always kept in
+	 * the Big Two order, so this does nothing.
 	 */
 	public void sortCardsInHand() {
 		cardsInHand.sort();
 	}
 
 	/**
-	 * Returns the list of cards held by this player.
+	 * Returns the list of cards held by this player, in the Big Two order.
 	 * 
 	 * @return the list of cards held by this player
 	 */
@@ -1,9 +1,12 @@
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.net.SocketAddress;
+import java.util.SplittableRandom;
 
 import javax.swing.JFrame;
 import javax.swing.JMenu;
@@ -26,10 +29,8 @@ public class CardGameServer {
 	private String serverName;
 	// The maximum number of players in a card game
 	private final int maxNumOfPlayers;
-	// Array for holding sockets of the clients
-	private Socket[] clientSockets;
-	// Array for holding ObjectOutputStreams of the clients
-	private ObjectOutputStream[] clientOutputStreams;
+	// Array for holding connections to the clients
+	private Connection[] clientConnections;
 	// Array for holding player names of the clients
 	private String[] clientNames;
 	// Array for holding ready states of the clients
@@ -42,6 +43,8 @@ public class CardGameServer {
 	private JTextArea textArea = null;
 	// a boolean indicating if the server is up
 	private boolean serverUp = false;
+	// the random number generator the deals of this server are drawn from
+	private final SplittableRandom random = new SplittableRandom();
 
 	/**
 	 * Creates and returns an instance of the BigTwoServer class.
@@ -55,10 +58,9 @@ public class CardGameServer {
 		this.serverName = serverName;
 		this.maxNumOfPlayers = maxNumOfPlayers;
 
-		// creates arrays for holding client sockets, output streams, player
-		// names, and ready states
-		clientSockets = new Socket[maxNumOfPlayers];
-		clientOutputStreams = new ObjectOutputStream[maxNumOfPlayers];
+		// creates arrays for holding client connections, player names, and
+		// ready states
+		clientConnections = new Connection[maxNumOfPlayers];
 		clientNames = new String[maxNumOfPlayers];
 		clientReadyStates = new boolean[maxNumOfPlayers];
 
@@ -114,7 +116,7 @@ public class CardGameServer {
 			while (serverUp) {
 				// waits for clients to connect
 				Socket clientSocket = serverSocket.accept();
-				addConnection(clientSocket);
+				addConnection(new StreamConnection(clientSocket));
 			} // while
 			serverSocket.close();
 		} catch (Exception ex) {
@@ -123,19 +125,44 @@ public class CardGameServer {
 		}
 	} // start
 
+	/**
+	 * Starts the server at the specified port with the selector-based
+	 * transport: a few threads serve every connection with non-blocking reads
+	 * and writes of framed messages (see NioTransport), instead of one thread
+	 * per client. The clients must use the framed protocol.
+	 * 
+	 * @param port
+	 *            the specified port at which the server starts
+	 * @param numOfSelectors
+	 *            the number of threads serving the connections
+	 */
+	public void startNio(int port, int numOfSelectors) {
+		// start the server
+		try (NioTransport transport = new NioTransport(this, numOfSelectors)) {
+			println("Starts up the server at localhost:" + transport.bind(port)
+					+ " with " + numOfSelectors + " selector thread(s)");
+			serverUp = true;
+			// serves the connections until the transport is closed
+			transport.run();
+		} catch (Exception ex) {
+			println("Error in starting up the server at localhost:" + port);
+			if (!silentMode) ex.printStackTrace();
+		}
+	} // startNio
+
 	/**
 	 * Parses the incoming message from the specified client.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to the specified client
+	 * @param connection
+	 *            the connection to the specified client
 	 * @param message
 	 *            the message received from the specified client
 	 */
-	private synchronized void parseMessage(Socket clientSocket,
+	synchronized void parseMessage(Connection connection,
 			CardGameMessage message) {
 		// updates the playerID
 		for (int i = 0; i < maxNumOfPlayers; i++) {
-			if (clientSockets[i] == clientSocket) {
+			if (clientConnections[i] == connection) {
 				message.setPlayerID(i);
 				break;
 			}
@@ -145,23 +172,31 @@ public class CardGameServer {
 		switch (message.getType()) {
 		case CardGameMessage.JOIN:
 			// adds a player to the game
-			addPlayer(clientSocket, (String) message.getData());
+			addPlayer(connection, (String) message.getData());
 			break;
 		case CardGameMessage.READY:
 			// marks the specified player as ready for a new game
-			setReadyState(clientSocket);
+			setReadyState(connection);
 			break;
 		case CardGameMessage.MOVE:
+			// a move is the indices of the cards played, or null for a pass
+			if (message.getData() != null
+					&& !(message.getData() instanceof int[])) {
+				println("Ignores a malformed \"MOVE\" message from "
+						+ connection.getRemoteAddress());
+				break;
+			}
 			println("Broadcasts a \"MOVE\" message from "
-					+ clientSocket.getRemoteSocketAddress());
+					+ connection.getRemoteAddress());
 			// broadcast the MOVE message to all clients
+			moveReceived(message.getPlayerID(), (int[]) message.getData());
 			broadcastMessage(message);
 			break;
 		case CardGameMessage.MSG:
 			println("Broadcasts a user message from "
-					+ clientSocket.getRemoteSocketAddress());
+					+ connection.getRemoteAddress());
 			// broadcast the user message to all clients
-			broadcastUserMessage(clientSocket, (String) message.getData());
+			broadcastUserMessage(connection, (String) message.getData());
 			break;
 		default:
 			println("Wrong message type: " + message.getType());
@@ -179,12 +214,12 @@ public class CardGameServer {
 	private synchronized void broadcastMessage(CardGameMessage message) {
 		if (numOfPlayers > 0) {
 			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] != null && clientOutputStreams[i] != null) {
+				if (clientConnections[i] != null) {
 					try {
-						clientOutputStreams[i].writeObject(message);
+						clientConnections[i].send(message);
 					} catch (Exception ex) {
 						println("Error in broadcasting a message to the client at "
-								+ clientSockets[i].getRemoteSocketAddress());
+								+ clientConnections[i].getRemoteAddress());
 						if (!silentMode) ex.printStackTrace();
 					}
 				}
@@ -193,41 +228,37 @@ public class CardGameServer {
 	} // broadcastMessage
 
 	/**
-	 * Adds a new socket connection to the server
+	 * Adds a new connection to the server
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to be added to the server
+	 * @param connection
+	 *            the connection to be added to the server
 	 */
-	private synchronized void addConnection(Socket clientSocket) {
+	synchronized void addConnection(Connection connection) {
 		// adds this connection to the server if the server is not full
 		if (numOfPlayers < maxNumOfPlayers) {
 			// locates the first empty slot for the new connection
 			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == null) {
+				if (clientConnections[i] == null) {
 					try {
-						// creates an ObjectOutputStream for this client socket
-						ObjectOutputStream oostream = new ObjectOutputStream(
-								clientSocket.getOutputStream());
+						// gets ready to send messages to this client
+						connection.open();
 
-						clientSockets[i] = clientSocket;
-						clientOutputStreams[i] = oostream;
+						clientConnections[i] = connection;
 						clientNames[i] = null;
 						clientReadyStates[i] = false;
 						numOfPlayers++;
 						println("Establishes a connection with a client at "
-								+ clientSocket.getRemoteSocketAddress());
+								+ connection.getRemoteAddress());
 
-						// creates a thread for receiving messages from this
-						// client
-						Thread t = new Thread(new ClientHandler(clientSocket));
-						t.start();
+						// starts receiving messages from this client
+						connection.receive();
 
 						// sends the player list to the new player
-						oostream.writeObject(new CardGameMessage(
+						connection.send(new CardGameMessage(
 								CardGameMessage.PLAYER_LIST, i, clientNames));
 					} catch (Exception ex) {
 						println("Error in establishing a connection with a client at "
-								+ clientSocket.getRemoteSocketAddress());
+								+ connection.getRemoteAddress());
 						if (!silentMode) ex.printStackTrace();
 					}
 					break;
@@ -236,12 +267,12 @@ public class CardGameServer {
 		} else {
 			// Max. no. of players reached
 			println("Server is full: cannot establish a connection with a client at "
-					+ clientSocket.getRemoteSocketAddress());
+					+ connection.getRemoteAddress());
 
-			// creates a thread for sending a FULL message to this client, waits
-			// for 1000 milliseconds and closes the socket
-			Thread t = new Thread(new ClientHandler2(clientSocket));
-			t.start();
+			// sends a FULL message to this client and closes the connection
+			// 1000 milliseconds later
+			connection.reject(new CardGameMessage(CardGameMessage.FULL, -1,
+					null));
 		}
 
 	} // addConnection
@@ -249,31 +280,31 @@ public class CardGameServer {
 	/**
 	 * Removes a connection from the server (possibly due to connection loss).
 	 * 
-	 * @param clientSocket
-	 *            the socket connection being removed from the server
+	 * @param connection
+	 *            the connection being removed from the server
 	 */
-	private synchronized void removeConnection(Socket clientSocket) {
+	synchronized void removeConnection(Connection connection) {
 		if (numOfPlayers > 0) {
 			// locates the client socket in the array
 			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
+				if (clientConnections[i] == connection) {
 					String name = clientNames[i];
 
-					clientSockets[i] = null;
-					clientOutputStreams[i] = null;
+					clientConnections[i] = null;
 					clientNames[i] = null;
 					clientReadyStates[i] = false;
 					numOfPlayers--;
 
-					println(name + " (" + clientSocket.getRemoteSocketAddress()
+					println(name + " (" + connection.getRemoteAddress()
 							+ ") leaves the game.");
 
-					String remoteAddress = clientSocket
-							.getRemoteSocketAddress().toString();
+					String remoteAddress = connection.getRemoteAddress()
+							.toString();
 
 					// broadcasts a message about the leaving of this player
 					broadcastMessage(new CardGameMessage(CardGameMessage.QUIT,
 							i, remoteAddress));
+					playerLeft(i);
 					break;
 				}
 			}
@@ -283,20 +314,20 @@ public class CardGameServer {
 	/**
 	 * adds a player to the game.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to the player who is joining the game
+	 * @param connection
+	 *            the connection to the player who is joining the game
 	 * @param name
 	 *            the name of the player who is joining the game
 	 */
-	private synchronized void addPlayer(Socket clientSocket, String name) {
+	private synchronized void addPlayer(Connection connection, String name) {
 		if (numOfPlayers > 0) {
 			// locates the client socket in the array
 			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
+				if (clientConnections[i] == connection) {
 					// updates the name of the new player
 					clientNames[i] = name;
 
-					println(name + " (" + clientSocket.getRemoteSocketAddress()
+					println(name + " (" + connection.getRemoteAddress()
 							+ ") joins the game.");
 
 					// broadcasts a message about this player joining the game
@@ -311,18 +342,18 @@ public class CardGameServer {
 	/**
 	 * Marks the specified player as ready for a new game.
 	 * 
-	 * @param clientSocket
-	 *            the socket connection to the player who becomes ready for a
-	 *            new game
+	 * @param connection
+	 *            the connection to the player who becomes ready for a new
+	 *            game
 	 */
-	private synchronized void setReadyState(Socket clientSocket) {
+	private synchronized void setReadyState(Connection connection) {
 		if (numOfPlayers > 0) {
 			// locates the client socket in the array
 			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
+				if (clientConnections[i] == connection) {
 					clientReadyStates[i] = true;
 					println(clientNames[i] + " ("
-							+ clientSocket.getRemoteSocketAddress()
+							+ connection.getRemoteAddress()
 							+ " ) is ready for the next game.");
 					broadcastMessage(new CardGameMessage(CardGameMessage.READY,
 							i, null));
@@ -347,13 +378,48 @@ public class CardGameServer {
 
 			// creates a new deck, shuffles the deck, and starts a new game
 			Deck deck = createDeck();
+			deck.setRandom(random);
 			deck.shuffle();
-			println("All players are ready. Game starts.");
+			println("All players are ready. Game starts. Seed of the deal: "
+					+ deck.getSeed());
+			gameStarted(deck);
 			broadcastMessage(new CardGameMessage(CardGameMessage.START, -1,
 					deck));
 		}
 	}
 
+	/**
+	 * Called when a new game starts, before the deck is sent to the clients.
+	 * Overrides this method to follow the game on the server.
+	 * 
+	 * @param deck
+	 *            the shuffled deck of the game
+	 */
+	protected void gameStarted(Deck deck) {
+	}
+
+	/**
+	 * Called when a player leaves, after the other clients have been told.
+	 * Overrides this method to follow the game on the server.
+	 * 
+	 * @param playerID
+	 *            the index of the player who left
+	 */
+	protected void playerLeft(int playerID) {
+	}
+
+	/**
+	 * Called when a move is received from a client, before it is broadcast.
+	 * Overrides this method to follow the game on the server.
+	 * 
+	 * @param playerID
+	 *            the index of the player making the move
+	 * @param cardIdx
+	 *            the indices of the cards played, or null for a pass
+	 */
+	protected void moveReceived(int playerID, int[] cardIdx) {
+	}
+
 	/**
 	 * Creates and returns an instance of the Deck class. Overrides this method
 	 * if a different type of deck is needed.
@@ -364,14 +430,14 @@ public class CardGameServer {
 		return new Deck();
 	}
 
-	private synchronized void broadcastUserMessage(Socket clientSocket,
+	private synchronized void broadcastUserMessage(Connection connection,
 			String msg) {
 		if (numOfPlayers > 0) {
 			// locates the client in the array
 			for (int i = 0; i < maxNumOfPlayers; i++) {
-				if (clientSockets[i] == clientSocket) {
+				if (clientConnections[i] == connection) {
 					String longMsg = clientNames[i] + " ("
-							+ clientSocket.getRemoteSocketAddress() + "): "
+							+ connection.getRemoteAddress() + "): "
 							+ msg;
 					broadcastMessage(new CardGameMessage(CardGameMessage.MSG,
 							i, longMsg));
@@ -386,11 +452,106 @@ public class CardGameServer {
 	 * 
 	 * @param msg
 	 */
-	private void println(String msg) {
+	protected void println(String msg) {
 		textArea.append(msg + "\n");
 		textArea.setCaretPosition(textArea.getDocument().getLength());
 	}
 
+	/**
+	 * A connection to a client, through which the server receives messages
+	 * from the client and sends messages to it.
+	 * 
+	 * @author Liu Yantong
+	 */
+	interface Connection {
+		/**
+		 * Gets ready to send messages to the client.
+		 * 
+		 * @throws IOException
+		 *             if the connection cannot send messages
+		 */
+		void open() throws IOException;
+
+		/**
+		 * Starts passing the messages of the client to parseMessage(), and
+		 * the loss of the connection to removeConnection().
+		 */
+		void receive();
+
+		/**
+		 * Sends a message to the client.
+		 * 
+		 * @param message
+		 *            the message to be sent
+		 * @throws IOException
+		 *             if the message cannot be sent
+		 */
+		void send(CardGameMessage message) throws IOException;
+
+		/**
+		 * Sends a message to a client the server cannot serve, and closes the
+		 * connection 1000 milliseconds later.
+		 * 
+		 * @param message
+		 *            the message to be sent
+		 */
+		void reject(CardGameMessage message);
+
+		/**
+		 * Returns the address of the client.
+		 * 
+		 * @return the IP address and TCP port of the client
+		 */
+		SocketAddress getRemoteAddress();
+	}
+
+	/**
+	 * This inner class is used for a connection to a client over a blocking
+	 * socket, with one thread receiving the messages of the client.
+	 * 
+	 * @author Liu Yantong
+	 */
+	private class StreamConnection implements Connection {
+		private final Socket clientSocket; // socket connection to the client
+		private ObjectOutputStream oostream; // ObjectOutputStream of the client
+
+		/**
+		 * Creates and returns an instance of the StreamConnection class.
+		 * 
+		 * @param clientSocket
+		 *            the socket connection to the client
+		 */
+		public StreamConnection(Socket clientSocket) {
+			this.clientSocket = clientSocket;
+		}
+
+		public void open() throws IOException {
+			// creates an ObjectOutputStream for this client socket
+			oostream = new ObjectOutputStream(clientSocket.getOutputStream());
+		}
+
+		public void receive() {
+			// creates a thread for receiving messages from this client
+			Thread t = new Thread(new ClientHandler(this));
+			t.start();
+		}
+
+		public void send(CardGameMessage message) throws IOException {
+			oostream.writeObject(message);
+		}
+
+		public void reject(CardGameMessage message) {
+			// creates a thread for sending the message to this client, waits
+			// for 1000 milliseconds and closes the socket
+			Thread t = new Thread(new ClientHandler2(this, message));
+			t.start();
+		}
+
+		public SocketAddress getRemoteAddress() {
+			return clientSocket.getRemoteSocketAddress();
+		}
+	} // StreamConnection
+
 	/**
 	 * This inner class is used for receiving incoming messages from a client
 	 * 
@@ -398,24 +559,25 @@ public class CardGameServer {
 	 *
 	 */
 	private class ClientHandler implements Runnable {
-		private Socket clientSocket; // socket connection to the client
+		private StreamConnection connection; // connection to the client
 		private ObjectInputStream oistream; // ObjectInputStream of the client
 
 		/**
 		 * Creates and returns an instance of the ClientHandler class.
 		 * 
-		 * @param clientSocket
-		 *            the socket connection to the client
+		 * @param connection
+		 *            the connection to the client
 		 */
-		public ClientHandler(Socket clientSocket) {
-			this.clientSocket = clientSocket;
+		public ClientHandler(StreamConnection connection) {
+			this.connection = connection;
 			try {
 				// creates an ObjectInputStream and chains it to the InputStream
 				// of the client socket
-				oistream = new ObjectInputStream(clientSocket.getInputStream());
+				oistream = new ObjectInputStream(
+						connection.clientSocket.getInputStream());
 			} catch (Exception ex) {
 				println("Error in creating an ObjectInputStream for the client at "
-						+ clientSocket.getRemoteSocketAddress());
+						+ connection.getRemoteAddress());
 				if (!silentMode) ex.printStackTrace();
 			}
 		} // constructor
@@ -427,30 +589,35 @@ public class CardGameServer {
 				// waits for messages from the client
 				while ((message = (CardGameMessage) oistream.readObject()) != null) {
 					println("Message received from "
-							+ clientSocket.getRemoteSocketAddress());
-					parseMessage(clientSocket, message);
+							+ connection.getRemoteAddress());
+					parseMessage(connection, message);
 				} // close while
 			} catch (Exception ex) {
 				println("Error in receiving messages from the client at "
-						+ clientSocket.getRemoteSocketAddress());
+						+ connection.getRemoteAddress());
 				if (!silentMode) ex.printStackTrace();
 				// possible connection loss, removes the connection
-				removeConnection(clientSocket);
+				removeConnection(connection);
 			}
 		} // run
 	} // ClientHandler
 
 	private class ClientHandler2 implements Runnable {
-		private Socket clientSocket; // socket connection to the client
+		private StreamConnection connection; // connection to the client
+		private CardGameMessage message; // message to be sent to the client
 
 		/**
 		 * Creates and returns an instance of the ClientHandler2 class.
 		 * 
-		 * @param clientSocket
-		 *            the socket connection to the client
+		 * @param connection
+		 *            the connection to the client
+		 * @param message
+		 *            the message to be sent to the client
 		 */
-		public ClientHandler2(Socket clientSocket) {
-			this.clientSocket = clientSocket;
+		public ClientHandler2(StreamConnection connection,
+				CardGameMessage message) {
+			this.connection = connection;
+			this.message = message;
 		} // constructor
 
 		// implementation of method from the Runnable interface
@@ -459,15 +626,13 @@ public class CardGameServer {
 				// creates an ObjectOutputStream and chains it to the
 				// OutputStream
 				// of the client socket
-				ObjectOutputStream oostream = new ObjectOutputStream(
-						clientSocket.getOutputStream());
-				// sends a FULL message to the client
-				oostream.writeObject(new CardGameMessage(CardGameMessage.FULL,
-						-1, null));
-				oostream.flush();
+				connection.open();
+				// sends the message (FULL) to the client
+				connection.send(message);
+				connection.oostream.flush();
 			} catch (Exception ex) {
 				println("Error in sending a FULL message to the client at "
-						+ clientSocket.getRemoteSocketAddress());
+						+ connection.getRemoteAddress());
 				if (!silentMode) ex.printStackTrace();
 			}
 
@@ -476,16 +641,16 @@ public class CardGameServer {
 				Thread.sleep(1000);
 			} catch (Exception ex) {
 				println("Error in sleeping before closing the client socket at "
-						+ clientSocket.getRemoteSocketAddress());
+						+ connection.getRemoteAddress());
 				if (!silentMode) ex.printStackTrace();
 			}
 
 			// closes the socket
 			try {
-				clientSocket.close();
+				connection.clientSocket.close();
 			} catch (Exception ex) {
 				println("Error in closing the client socket at "
-						+ clientSocket.getRemoteSocketAddress());
+						+ connection.getRemoteAddress());
 				if (!silentMode) ex.printStackTrace();
 			}
 		} // run
@@ -69,7 +69,7 @@ public class CardList implements Serializable {
 	 * Removes all cards from this list.
 	 */
 	public void removeAllCards() {
-		cards = new ArrayList<Card>();
+		cards.clear();
 	}
 
 	/**
@@ -141,14 +141,14 @@ public class CardList implements Serializable {
 	 *                   front of each card
 	 */
 	public void print(boolean printFront, boolean printIndex) {
-		if (cards.size() > 0) {
-			for (int i = 0; i < cards.size(); i++) {
+		if (size() > 0) {
+			for (int i = 0; i < size(); i++) {
 				String string = "";
 				if (printIndex) {
 					string = i + " ";
 				}
 				if (printFront) {
-					string = string + "[" + cards.get(i) + "]";
+					string = string + "[" + getCard(i) + "]";
 				} else {
 					string = string + "[  ]";
 				}
@@ -156,7 +156,7 @@ public class CardList implements Serializable {
 					string = " " + string;
 				}
 				System.out.print(string);
-				if (i % 13 == 12 || i == cards.size() - 1) {
+				if (i % 13 == 12 || i == size() - 1) {
 					System.out.println("");
 				}
 			}
@@ -172,10 +172,10 @@ public class CardList implements Serializable {
 	 */
 	public String toString() {
 		String string = "";
-		if (cards.size() > 0) {
-			for (int i = 0; i < cards.size(); i++) {
-				string = string + "[" + cards.get(i) + "]";
-				if (i != cards.size() - 1) {
+		if (size() > 0) {
+			for (int i = 0; i < size(); i++) {
+				string = string + "[" + getCard(i) + "]";
+				if (i != size() - 1) {
 					string = string + " ";
 				}
 			}
@@ -0,0 +1,281 @@
+import java.util.SplittableRandom;
+
+/**
+ * The CardTracker class keeps track of what one seat knows about the cards of the other players.
+ *
+ * <p>The tracker listens to a {@link BigTwoEngine} and updates its state in constant time for every hand
+ * played and every pass. It knows the cards no one has played and the seat does not hold (the unseen cards),
+ * the number of cards held by each opponent, and for each opponent the mask of the cards they may still hold.
+ * A pass is taken as a sign that the opponent cannot beat the hand on the table: after a pass on a single,
+ * every higher card is removed from the possible cards of the opponent; after a pass on a larger hand, the
+ * opponent is believed to hold no hand of that size beating it. A belief that turns out to be wrong, because
+ * the opponent later plays such a card or hand, is dropped.</p>
+ *
+ * <p>{@link #sampleDeal(SplittableRandom, long[])} deals the unseen cards to the opponents consistently with
+ * what is known, for Monte Carlo searches.</p>
+ *
+ * @author Liu Yantong
+ */
+public class CardTracker implements BigTwoListener {
+	/**
+	 * The number of deals tried by {@link #sampleDeal(SplittableRandom, long[])} to respect the beliefs about
+	 * hands of two or more cards.
+	 */
+	private static final int MAX_ATTEMPTS = 8;
+
+	private static final int NUM_OF_PLAYERS = BigTwoEngine.NUM_OF_PLAYERS;
+	private static final long ALL_CARDS = (1L << 52) - 1;
+
+	/**
+	 * No belief about the hands of a size.
+	 */
+	private static final long NO_LIMIT = Long.MAX_VALUE;
+
+	private final BigTwoEngine engine;
+	private int seat;
+	private long unseen;
+	private long played;
+	private final long[] possible = new long[NUM_OF_PLAYERS];
+	private final int[] counts = new int[NUM_OF_PLAYERS];
+	// the key of the weakest hand of each size (1, 2, 3, 5) each opponent is believed unable to beat
+	private final long[][] limits = new long[NUM_OF_PLAYERS][4];
+	private long lastKey;
+	private int lastTop;
+
+	// scratch space of sampleDeal
+	private final int[] ordinals = new int[52];
+	private final int[] order = new int[NUM_OF_PLAYERS];
+	private LegalMoveGenerator generator;
+
+	/**
+	 * Creates a tracker for a seat and attaches it to an engine. The tracker starts with the next game.
+	 *
+	 * @param engine the engine of the game
+	 * @param seat the index of the player whose knowledge is tracked
+	 */
+	public CardTracker(BigTwoEngine engine, int seat) {
+		this.engine = engine;
+		this.seat = seat;
+		engine.addListener(this);
+	}
+
+	/**
+	 * Changes the seat tracked, from the next game on.
+	 *
+	 * @param seat the index of the player whose knowledge is tracked
+	 */
+	public void setSeat(int seat) {
+		this.seat = seat;
+	}
+
+	/**
+	 * Get the seat tracked.
+	 *
+	 * @return the index of the player whose knowledge is tracked
+	 */
+	public int getSeat() {
+		return seat;
+	}
+
+	/**
+	 * Get the cards no one has played and the seat does not hold.
+	 *
+	 * @return the mask of the unseen cards
+	 */
+	public long getUnseen() {
+		return unseen;
+	}
+
+	/**
+	 * Get the cards played so far.
+	 *
+	 * @return the mask of the cards played
+	 */
+	public long getPlayed() {
+		return played;
+	}
+
+	/**
+	 * Get the cards a player may hold: the cards held by the seat itself, or the unseen cards an opponent
+	 * is not believed to lack.
+	 *
+	 * @param playerIdx the index of the player
+	 * @return the mask of the cards the player may hold
+	 */
+	public long getPossible(int playerIdx) {
+		return possible[playerIdx];
+	}
+
+	/**
+	 * Get the number of cards held by a player.
+	 *
+	 * @param playerIdx the index of the player
+	 * @return the number of cards held
+	 */
+	public int getCount(int playerIdx) {
+		return counts[playerIdx];
+	}
+
+	/**
+	 * Starts tracking a new game from the cards dealt to the seat.
+	 *
+	 * @param firstPlayerIdx the index of the player who plays first
+	 */
+	@Override
+	public void gameStarted(int firstPlayerIdx) {
+		long holding = seat >= 0 && seat < NUM_OF_PLAYERS ? engine.getPlayerList().get(seat).getCardMask() : 0L;
+		unseen = ALL_CARDS & ~holding;
+		played = 0L;
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			possible[i] = i == seat ? holding : unseen;
+			counts[i] = engine.getPlayerList().get(i).getNumOfCards();
+			for (int j = 0; j < limits[i].length; j++) {
+				limits[i][j] = NO_LIMIT;
+			}
+		}
+		lastKey = 0L;
+	}
+
+	/**
+	 * Removes the cards of a hand from the unseen cards and drops the beliefs it contradicts.
+	 *
+	 * @param playerIdx the index of the player
+	 * @param hand the hand played
+	 */
+	@Override
+	public void handPlayed(int playerIdx, Hand hand) {
+		long move = hand.getMask();
+		long key = hand.getKey();
+		if (playerIdx != seat) {
+			if ((move & ~possible[playerIdx]) != 0L) {
+				possible[playerIdx] = unseen;
+			}
+			int size = sizeIdx(key);
+			if (key > limits[playerIdx][size]) {
+				limits[playerIdx][size] = NO_LIMIT;
+			}
+		}
+		unseen &= ~move;
+		played |= move;
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			possible[i] &= ~move;
+		}
+		counts[playerIdx] -= Long.bitCount(move);
+		lastKey = key;
+		lastTop = HandClassifier.ordinal(hand.getTopCard());
+	}
+
+	/**
+	 * Records that an opponent could not, or chose not to, beat the hand on the table.
+	 *
+	 * @param playerIdx the index of the player who passed
+	 */
+	@Override
+	public void passed(int playerIdx) {
+		if (playerIdx == seat || lastKey == 0L) {
+			return;
+		}
+		int size = sizeIdx(lastKey);
+		if (size == 0) {
+			// no card above the single on the table
+			possible[playerIdx] &= (2L << lastTop) - 1;
+			if (Long.bitCount(possible[playerIdx]) < counts[playerIdx]) {
+				possible[playerIdx] = unseen;
+			}
+		}
+		else {
+			limits[playerIdx][size] = Math.min(limits[playerIdx][size], lastKey);
+		}
+	}
+
+	/**
+	 * Deals the unseen cards to the opponents, each getting as many cards as they hold and only cards they may
+	 * hold, with a few tries to also respect the beliefs about their pairs, triples and five-card hands.
+	 * The seat gets its own cards.
+	 *
+	 * @param random the random number generator
+	 * @param holdings the array receiving the mask of the cards of each player
+	 */
+	public void sampleDeal(SplittableRandom random, long[] holdings) {
+		for (int attempt = 0; ; attempt++) {
+			deal(random, holdings);
+			if (attempt + 1 == MAX_ATTEMPTS || isBelievable(holdings)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Deals the unseen cards respecting the possible cards of the opponents. The possible cards of the
+	 * opponents are nested, being the unseen cards up to some card, so dealing to the most constrained
+	 * opponent first always succeeds.
+	 */
+	private void deal(SplittableRandom random, long[] holdings) {
+		int numOfOpponents = 0;
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			if (i == seat) {
+				holdings[i] = possible[i];
+				continue;
+			}
+			int j = numOfOpponents++;
+			for (; j > 0 && Long.bitCount(possible[order[j - 1]]) > Long.bitCount(possible[i]); j--) {
+				order[j] = order[j - 1];
+			}
+			order[j] = i;
+		}
+		long remaining = unseen;
+		for (int k = 0; k < numOfOpponents; k++) {
+			int player = order[k];
+			long allowed = remaining & possible[player];
+			if (Long.bitCount(allowed) < counts[player]) {
+				// the beliefs of this opponent leave too few cards; fall back to every unseen card
+				allowed = remaining;
+			}
+			int n = 0;
+			for (long m = allowed; m != 0; m &= m - 1) {
+				ordinals[n++] = Long.numberOfTrailingZeros(m);
+			}
+			long holding = 0L;
+			for (int i = 0; i < counts[player] && i < n; i++) {
+				int j = i + random.nextInt(n - i);
+				int card = ordinals[j];
+				ordinals[j] = ordinals[i];
+				ordinals[i] = card;
+				holding |= 1L << card;
+			}
+			holdings[player] = holding;
+			remaining &= ~holding;
+		}
+	}
+
+	/**
+	 * Checks the beliefs about the pairs, triples and five-card hands of the opponents against a deal.
+	 */
+	private boolean isBelievable(long[] holdings) {
+		if (generator == null || generator.getRules() != engine.getRules()) {
+			generator = new LegalMoveGenerator(engine.getRules());
+		}
+		for (int i = 0; i < NUM_OF_PLAYERS; i++) {
+			if (i == seat) {
+				continue;
+			}
+			for (int size = 1; size < limits[i].length; size++) {
+				if (limits[i][size] != NO_LIMIT) {
+					generator.reset(holdings[i], limits[i][size], 0L);
+					if (generator.hasMove()) {
+						return false;
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the index of the size of a hand among 1, 2, 3 and 5 cards.
+	 */
+	private static int sizeIdx(long key) {
+		int size = HandClassifier.sizeOfKey(key);
+		return size == 5 ? 3 : size - 1;
+	}
+}
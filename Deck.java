@@ -1,10 +1,21 @@
+import java.util.SplittableRandom;
+
 /**
  * This class is used to represent a deck of cards in general card games.
  * 
+ * <p>A deck is shuffled by a Fisher-Yates shuffle, which gives every order of
+ * the cards the same chance. Each shuffle draws a 64-bit seed from the random
+ * number generator of the deck and records it, so that the same deal can be
+ * made again with {@link #shuffle(long)} on a deck in the same order.</p>
+ * 
  * @author Kenneth Wong
  */
 public class Deck extends CardList {
 	private static final long serialVersionUID = -3886066435694112173L;
+	// the generator the seeds of the shuffles are drawn from
+	private transient SplittableRandom random;
+	// the seed of the last shuffle
+	private transient long seed;
 
 	/**
 	 * Creates and returns an instance of the Deck class.
@@ -27,15 +38,63 @@ public class Deck extends CardList {
 	}
 
 	/**
-	 * Shuffles the deck of cards.
+	 * Shuffles the deck of cards with a seed drawn from the random number
+	 * generator of the deck.
 	 */
 	public void shuffle() {
-		for (int i = 0; i < this.size(); i++) {
-			int j = (int) (Math.random() * this.size());
+		if (random == null) {
+			random = new SplittableRandom();
+		}
+		shuffle(random.nextLong());
+	}
+
+	/**
+	 * Shuffles the deck of cards from a seed, and records the seed. The same
+	 * seed gives the same order of the cards from the same starting order.
+	 * 
+	 * @param seed
+	 *            the seed of the shuffle
+	 */
+	public void shuffle(long seed) {
+		this.seed = seed;
+		shuffle(new SplittableRandom(seed));
+	}
+
+	/**
+	 * Shuffles the deck of cards with the numbers drawn from a random number
+	 * generator. The seed recorded by the deck is left unchanged.
+	 * 
+	 * @param random
+	 *            the random number generator
+	 */
+	public void shuffle(SplittableRandom random) {
+		for (int i = size() - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
 			if (i != j) {
 				Card card = setCard(i, getCard(j));
 				setCard(j, card);
 			}
 		}
 	}
+
+	/**
+	 * Returns the seed of the last shuffle of the deck.
+	 * 
+	 * @return the seed of the last shuffle
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Sets the random number generator the seeds of the shuffles are drawn
+	 * from, for instance one per table, so that tables shuffling at the same
+	 * time do not share a generator.
+	 * 
+	 * @param random
+	 *            the random number generator
+	 */
+	public void setRandom(SplittableRandom random) {
+		this.random = random;
+	}
 }
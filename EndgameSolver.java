@@ -0,0 +1,197 @@
+import java.util.Arrays;
+
+/**
+ * The EndgameSolver class solves the end of a game of Big Two exactly when every player's cards are known.
+ *
+ * <p>The solver answers whether a player can force a win, that is win against every defence of the three
+ * other players together. This turns the game into a two-sided AND/OR tree: the player needs one winning
+ * move, the opponents need one move after which the player cannot win. The tree is searched depth first on
+ * a {@link BigTwoState}, playing the largest hands first and passing last, and cutting off as soon as one
+ * answer is known (alpha-beta with a window of a single win). Every solved position is stored in a
+ * {@link TranspositionTable} under its Zobrist hash, so a position reached by different orders of moves is
+ * searched once.</p>
+ *
+ * <p>A solver is used by one thread at a time; several solvers may share a table. A table holds the results
+ * of one set of rules.</p>
+ *
+ * @author Liu Yantong
+ */
+public class EndgameSolver {
+	/**
+	 * The player can force a win.
+	 */
+	public static final int WIN = 1;
+
+	/**
+	 * The opponents can stop the player from winning.
+	 */
+	public static final int LOSS = 0;
+
+	/**
+	 * The search was stopped by its node limit before it found the answer.
+	 */
+	public static final int UNKNOWN = -1;
+
+	// the keys distinguishing the answers for each player in the table
+	private static final long[] PLAYER_KEYS = { 0x7A3F9B1C5E2D4F60L, 0x1B5C7D9E3F2A4B68L, 0x5D2E8F4A1B6C3D7EL,
+			0x3C6E1A8B5D2F7E94L };
+
+	// the data of an entry: whether it is valid, whether the player wins, and the best move
+	private static final long VALID = 1L << 62;
+	private static final long WON = 1L << 61;
+	private static final long MOVE_BITS = (1L << 52) - 1;
+
+	private final TranspositionTable table;
+	private final long maxNodes;
+	private LegalMoveGenerator generator;
+	// the moves of the positions being searched, one slice per ply
+	private long[] moves = new long[1024];
+	private int top;
+	private long nodes;
+	private boolean aborted;
+
+	/**
+	 * Creates a solver with its own table of 2^20 entries and no node limit.
+	 */
+	public EndgameSolver() {
+		this(new TranspositionTable(20), Long.MAX_VALUE);
+	}
+
+	/**
+	 * Creates a solver.
+	 *
+	 * @param table the table of solved positions, which may be shared with other solvers of the same rules
+	 * @param maxNodes the number of positions a call to {@link #solve(BigTwoState, int)} may visit before it gives up
+	 */
+	public EndgameSolver(TranspositionTable table, long maxNodes) {
+		this.table = table;
+		this.maxNodes = maxNodes;
+	}
+
+	/**
+	 * Returns the number of positions visited by the last call to {@link #solve(BigTwoState, int)}.
+	 *
+	 * @return the number of positions visited
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Solves a position: finds out whether a player can force a win. The state is left as it was.
+	 *
+	 * @param state the position, with the cards of every player known
+	 * @param playerIdx the index of the player
+	 * @return {@link #WIN}, {@link #LOSS}, or {@link #UNKNOWN} if the node limit was reached
+	 */
+	public int solve(BigTwoState state, int playerIdx) {
+		if (generator == null || generator.getRules() != state.getRules()) {
+			generator = new LegalMoveGenerator(state.getRules());
+		}
+		nodes = 0;
+		aborted = false;
+		top = 0;
+		int ply = state.getPly();
+		boolean won = wins(state, playerIdx);
+		while (state.getPly() > ply) {
+			state.undo();
+		}
+		return aborted ? UNKNOWN : won ? WIN : LOSS;
+	}
+
+	/**
+	 * Returns the principal line of a position: the winning moves of the player and the defence of the
+	 * opponents if the player can force a win, or the refutation by the opponents otherwise, until the
+	 * game ends. The state is left as it was.
+	 *
+	 * @param state the position, with the cards of every player known
+	 * @param playerIdx the index of the player
+	 * @return the moves of the line, as card masks with 0 for a pass, or null if the node limit was reached
+	 */
+	public long[] getPrincipalLine(BigTwoState state, int playerIdx) {
+		long[] line = new long[BigTwoState.MAX_PLY];
+		int length = 0;
+		int ply = state.getPly();
+		while (!state.isGameOver()) {
+			long data = table.probe(state.getHash() ^ PLAYER_KEYS[playerIdx]);
+			if (data == 0L) {
+				int result = solve(state, playerIdx);
+				data = table.probe(state.getHash() ^ PLAYER_KEYS[playerIdx]);
+				if (result == UNKNOWN || data == 0L) {
+					length = -1;
+					break;
+				}
+			}
+			long move = data & MOVE_BITS;
+			line[length++] = move;
+			state.apply(move);
+		}
+		while (state.getPly() > ply) {
+			state.undo();
+		}
+		return length < 0 ? null : Arrays.copyOf(line, length);
+	}
+
+	/**
+	 * Returns whether the player can force a win from the current position, and stores the answer.
+	 */
+	private boolean wins(BigTwoState state, int playerIdx) {
+		if (state.isGameOver()) {
+			return state.getWinner() == playerIdx;
+		}
+		long hash = state.getHash() ^ PLAYER_KEYS[playerIdx];
+		long data = table.probe(hash);
+		if (data != 0L) {
+			return (data & WON) != 0L;
+		}
+		if (++nodes > maxNodes) {
+			aborted = true;
+			return false;
+		}
+
+		// the largest hands first, as the generator gives them smallest first, and passing last
+		int start = top;
+		state.getLegalMoves(generator);
+		for (long move = generator.next(); move != 0L; move = generator.next()) {
+			push(move);
+		}
+		for (int i = start, j = top - 1; i < j; i++, j--) {
+			long move = moves[i];
+			moves[i] = moves[j];
+			moves[j] = move;
+		}
+		if (state.canPass()) {
+			push(0L);
+		}
+
+		boolean mover = state.getCurrentPlayer() == playerIdx;
+		// the player needs one winning move; the opponents need one move the player cannot win after
+		boolean won = !mover;
+		long best = moves[start];
+		for (int i = start; i < top; i++) {
+			long move = moves[i];
+			state.apply(move);
+			boolean result = wins(state, playerIdx);
+			state.undo();
+			if (aborted) {
+				top = start;
+				return false;
+			}
+			if (result == mover) {
+				won = result;
+				best = move;
+				break;
+			}
+		}
+		top = start;
+		table.store(hash, VALID | (won ? WON : 0L) | best);
+		return won;
+	}
+
+	private void push(long move) {
+		if (top == moves.length) {
+			moves = Arrays.copyOf(moves, 2 * moves.length);
+		}
+		moves[top++] = move;
+	}
+}
@@ -0,0 +1,22 @@
+import java.util.SplittableRandom;
+
+/**
+ * The GreedyAgent class always plays when it can, choosing the lowest legal play: the lowest single,
+ * pair or triple, or the weakest five-card hand. It only passes when it has no legal play.
+ *
+ * @author Liu Yantong
+ */
+public class GreedyAgent implements BigTwoAgent {
+	/**
+	 * Chooses the first legal play, which is the lowest one.
+	 *
+	 * @param view the view of the game from the seat of the player to move
+	 * @param moves the legal plays of the player
+	 * @param random not used
+	 * @return the mask of the cards to play, or 0 to pass
+	 */
+	@Override
+	public long chooseMove(BigTwoView view, LegalMoveGenerator moves, SplittableRandom random) {
+		return moves.next();
+	}
+}
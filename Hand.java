@@ -1,28 +1,59 @@
-import java.util.ArrayList;
-
 /**
  * The Hand class represents a collection of cards held by a player in the Big Two card game.
- * It extends the CardList class and provides specific functions to evaluating and comparing hands.
+ * It extends the BigTwoCardList class and provides specific functions to evaluating and comparing hands.
+ * 
+ * <p>A hand is an immutable snapshot: its cards are kept in the Big Two order as a card mask, and its
+ * classification, validity, comparison key and top card are computed at the same time. Any attempt
+ * to change the cards of a hand afterwards throws an UnsupportedOperationException.</p>
  * 
  * @author Liu Yantong
  */
-abstract class Hand extends CardList {
+abstract class Hand extends BigTwoCardList {
+	private static final String IMMUTABLE = "A hand cannot be changed once it has been constructed";
 	private CardGamePlayer player;
+	private final BigTwoRules rules;
+	private final int code;
+	private final boolean valid;
+	private final long key;
+	private final Card topCard;
+	private boolean sealed = false;
 	
 	/**
-	 * Constructs a Hand object with the specified player and cards.
+	 * Constructs a Hand object with the specified player and cards under the standard rules.
      *
      * @param player the player who may holds this hand
      * @param cards  the list of cards that may make up the hand
 	 */
 	public Hand(CardGamePlayer player, CardList cards) {
+		this(player, cards, BigTwoRules.STANDARD);
+	}
+	
+	/**
+	 * Constructs a Hand object with the specified player and cards under the specified rules.
+     *
+     * @param player the player who may holds this hand
+     * @param cards  the list of cards that may make up the hand
+     * @param rules  the rules the hand is classified and compared by
+	 */
+	public Hand(CardGamePlayer player, CardList cards, BigTwoRules rules) {
 		this.player = player;
+		this.rules = rules;
+		int numOfCards = 0;
 		for (int i = 0; i < cards.size(); i++) {
 			Card card = cards.getCard(i);
 			if (card != null) {
                 this.addCard(card);
+                numOfCards++;
             }
 		}
+		this.sealed = true;
+		
+		// classify once, the same card chosen twice is never a valid hand
+		long mask = getMask();
+		this.code = Long.bitCount(mask) == numOfCards ? rules.classify(mask) : HandClassifier.INVALID;
+		this.valid = this.isValid();
+		this.key = valid ? rules.key(this.getTypeCode(), HandClassifier.topOf(code)) : 0L;
+		this.topCard = this.findTopCard();
 	}
 	
 	/**
@@ -35,21 +66,67 @@ abstract class Hand extends CardList {
 		
 	}
 	
+	/**
+	 * Get the rules this hand is classified and compared by.
+	 * 
+	 * @return the rules of this hand
+	 */
+	public BigTwoRules getRules() {
+		return rules;
+	}
+	
 	/**
 	 * Returns the top card of the hand.
      *
      * @return the top card of the hand, or null if the hand is empty
 	 */
 	public Card getTopCard() {
+		return topCard;
+	}
+	
+	/**
+	 * Finds the top card of the hand when the hand is constructed.
+	 * 
+	 * @return the highest card of the hand, or null if the hand is empty
+	 */
+	protected Card findTopCard() {
 		if (this.size() > 0) {
-			this.sort();
-			return this.getCard(this.size()-1);
+			return getCardByOrdinal(63 - Long.numberOfLeadingZeros(getMask()));
 		}
 		else {
 			return null;
 		}
 	}
 	
+	/**
+	 * Returns the classification of the cards of this hand, computed under the rules of this hand when the hand was constructed.
+	 * 
+	 * @return the packed type, strength and top card of the cards, or {@link HandClassifier#INVALID}
+	 */
+	protected int classify() {
+		return code;
+	}
+	
+	/**
+	 * Returns the card of this hand with the given ordinal.
+	 * 
+	 * @param ordinal the ordinal of the card in the Big Two order
+	 * @return the card with the given ordinal, or null if this hand does not hold it
+	 */
+	protected Card getCardByOrdinal(int ordinal) {
+		return (getMask() & (1L << ordinal)) != 0 ? BigTwoCard.valueOf(ordinal) : null;
+	}
+	
+	/**
+	 * Returns the comparison key of this hand. Keys of valid hands of the same size compare like the hands,
+	 * so a hand beats another one exactly when its key is larger.
+	 *
+	 * @return the comparison key of this hand, or 0 if the hand is not valid
+	 */
+	public long getKey() {
+		return key;
+	}
+	
 	/**
 	 * Determines if this hand beats the specified hand.
      *
@@ -57,36 +134,72 @@ abstract class Hand extends CardList {
      * @return true if this hand beats the specified hand; false otherwise
 	 */
 	public boolean beats(Hand hand) {
-		if (hand == null || this == null || !this.isValid() || !hand.isValid() || this.getType() != hand.getType()) {
-			return false;
-		}
-		else {
-			Card this_tc = this.getTopCard();
-			Card hand_tc = hand.getTopCard();
-			int this_tc_rank = this_tc.getRank();
-			int hand_tc_rank = hand_tc.getRank();
-			if (this_tc_rank == 0 || this_tc_rank == 1) {
-				this_tc_rank += 13;
-			}
-			
-			if (hand_tc_rank == 0 || hand_tc_rank == 1) {
-				hand_tc_rank += 13;
-			}
-			
-			if (this_tc_rank > hand_tc_rank) {
-				return true;
-			}
-			else if (this_tc_rank < hand_tc_rank) {
-				return false;
-			}
-			else {
-				if (this_tc.getSuit() > hand_tc.getSuit()) {
-					return true;
-				}
-				else {
-					return false;
-				}
-			}
+		return hand != null && valid && hand.key != 0L && HandClassifier.sizeOfKey(key) == HandClassifier.sizeOfKey(hand.key)
+				&& key > hand.key;
+	}
+	
+	/**
+	 * Adds a card while the hand is being constructed.
+	 * 
+	 * @param card the card to be added
+	 * @throws UnsupportedOperationException if the hand has been constructed
+	 */
+	@Override
+	public void addCard(Card card) {
+		checkNotSealed();
+		super.addCard(card);
+	}
+	
+	/**
+	 * Hands are immutable, so cards cannot be removed from them.
+	 * 
+	 * @param i the index of the card to be removed
+	 * @return never returns normally
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Card removeCard(int i) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+	
+	/**
+	 * Hands are immutable, so cards cannot be removed from them.
+	 * 
+	 * @param card the card to be removed
+	 * @return never returns normally
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public boolean removeCard(Card card) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+	
+	/**
+	 * Hands are immutable, so cards cannot be removed from them.
+	 * 
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public void removeAllCards() {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+	
+	/**
+	 * Hands are immutable, so cards cannot be replaced.
+	 * 
+	 * @param i the index of the card to be replaced
+	 * @param card the card to be stored at the specified position
+	 * @return never returns normally
+	 * @throws UnsupportedOperationException always
+	 */
+	@Override
+	public Card setCard(int i, Card card) {
+		throw new UnsupportedOperationException(IMMUTABLE);
+	}
+	
+	private void checkNotSealed() {
+		if (sealed) {
+			throw new UnsupportedOperationException(IMMUTABLE);
 		}
 	}
 	
@@ -103,4 +216,11 @@ abstract class Hand extends CardList {
      * @return a string representing the type of the hand (e.g., "Flush", "Straight")
 	 */
 	public abstract String getType();
-}
+	
+	/**
+	 * Returns the type code of this hand.
+	 *
+	 * @return the type code of the hand, as defined in {@link HandClassifier}
+	 */
+	protected abstract int getTypeCode();
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+/**
+ * The HandBatch class classifies large arrays of card masks, for simulations that evaluate
+ * millions of candidate hands at a time.
+ *
+ * <p>Each mask is classified by the {@link HandTable}, so the results are exactly those of
+ * {@link HandClassifier#classify(long)}. A SIMD kernel was tried and dropped: it ran at half the
+ * speed of the table lookup (see the README).</p>
+ *
+ * @author Liu Yantong
+ */
+public final class HandBatch {
+	private HandBatch() {
+	}
+
+	/**
+	 * Classifies an array of masks.
+	 *
+	 * @param masks the masks of the cards
+	 * @param codes the array receiving the classification of each mask, at least as long as masks
+	 */
+	public static void classify(long[] masks, int[] codes) {
+		classify(masks, codes, 0, masks.length);
+	}
+
+	/**
+	 * Classifies a range of an array of masks.
+	 *
+	 * @param masks the masks of the cards
+	 * @param codes the array receiving the classifications
+	 * @param from the first index, inclusive
+	 * @param to the last index, exclusive
+	 */
+	public static void classify(long[] masks, int[] codes, int from, int to) {
+		if (from < 0 || to > masks.length || to > codes.length || from > to) {
+			throw new IndexOutOfBoundsException("Invalid range [" + from + ", " + to + ")");
+		}
+		for (int i = from; i < to; i++) {
+			codes[i] = HandTable.classify(masks[i]);
+		}
+	}
+}
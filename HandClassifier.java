@@ -0,0 +1,252 @@
+/**
+ * The HandClassifier class classifies a selection of Big Two cards in a single pass.
+ *
+ * <p>A selection is encoded as a 52-bit mask in which the bit of a card is its ordinal:
+ * the Big Two rank of the card (3 = 0, 4 = 1, ..., K = 10, A = 11, 2 = 12) times four plus its suit.
+ * Every rank therefore occupies one nibble of the mask and every suit one bit of each nibble,
+ * so the rank and suit histograms of a selection are simple bit operations on the mask.
+ * The classification needs no sorting and allocates nothing.</p>
+ *
+ * <p>The result of {@link #classify(long)} packs the type of the hand, its strength within that
+ * type and the ordinal of its top card into one int.</p>
+ *
+ * @author Liu Yantong
+ */
+public final class HandClassifier {
+	/**
+	 * Type code of a selection that is not a valid hand.
+	 */
+	public static final int INVALID = 0;
+
+	/**
+	 * Type code of a Single.
+	 */
+	public static final int SINGLE = 1;
+
+	/**
+	 * Type code of a Pair.
+	 */
+	public static final int PAIR = 2;
+
+	/**
+	 * Type code of a Triple.
+	 */
+	public static final int TRIPLE = 3;
+
+	/**
+	 * Type code of a Straight.
+	 */
+	public static final int STRAIGHT = 4;
+
+	/**
+	 * Type code of a Flush.
+	 */
+	public static final int FLUSH = 5;
+
+	/**
+	 * Type code of a FullHouse.
+	 */
+	public static final int FULL_HOUSE = 6;
+
+	/**
+	 * Type code of a Quad.
+	 */
+	public static final int QUAD = 7;
+
+	/**
+	 * Type code of a StraightFlush.
+	 */
+	public static final int STRAIGHT_FLUSH = 8;
+
+	/**
+	 * The lowest bit of every rank nibble.
+	 */
+	private static final long RANK_BITS = 0x1111111111111L;
+
+	/**
+	 * The bits of all the diamonds; the other suits are obtained by shifting.
+	 */
+	private static final long SUIT_BITS = RANK_BITS;
+
+	private HandClassifier() {
+	}
+
+	/**
+	 * Returns the ordinal (0 - 51) of a card in the Big Two order.
+	 *
+	 * @param card the card
+	 * @return the ordinal of the card
+	 */
+	public static int ordinal(Card card) {
+		if (card instanceof BigTwoCard) {
+			return ((BigTwoCard) card).getOrdinal();
+		}
+		return ((card.getRank() + 11) % 13) * 4 + card.getSuit();
+	}
+
+	/**
+	 * Returns the mask of the cards in the list.
+	 *
+	 * @param cards the list of cards
+	 * @return the mask of the cards, 0 if the list is null or empty
+	 */
+	public static long mask(CardList cards) {
+		if (cards instanceof BigTwoCardList) {
+			return ((BigTwoCardList) cards).getMask();
+		}
+		long mask = 0L;
+		if (cards != null) {
+			for (int i = 0; i < cards.size(); i++) {
+				mask |= 1L << ordinal(cards.getCard(i));
+			}
+		}
+		return mask;
+	}
+
+	/**
+	 * Classifies the cards of a mask.
+	 *
+	 * @param mask the mask of the cards
+	 * @return the packed type, strength and top card of the hand, or {@link #INVALID} if the cards do not make a hand
+	 */
+	public static int classify(long mask) {
+		int top = 63 - Long.numberOfLeadingZeros(mask);
+		int low = Long.numberOfTrailingZeros(mask);
+		switch (Long.bitCount(mask)) {
+		case 1:
+			return code(SINGLE, top);
+		case 2:
+			return (top >> 2) == (low >> 2) ? code(PAIR, top) : INVALID;
+		case 3:
+			return (top >> 2) == (low >> 2) ? code(TRIPLE, top) : INVALID;
+		case 5:
+			return classifyFive(mask, top, low);
+		default:
+			return INVALID;
+		}
+	}
+
+	/**
+	 * Classifies a mask holding exactly five cards.
+	 */
+	private static int classifyFive(long mask, int top, int low) {
+		// rank histogram: one bit per rank held, and the ranks held four times
+		long folded = mask | (mask >>> 1);
+		long ranks = (folded | (folded >>> 2)) & RANK_BITS;
+		long quads = mask & (mask >>> 1) & (mask >>> 2) & (mask >>> 3) & RANK_BITS;
+		int distinct = Long.bitCount(ranks);
+
+		if (distinct == 5) {
+			// suit histogram: all five cards in the suit of the lowest card
+			boolean flush = (mask & (SUIT_BITS << (low & 3))) == mask;
+			boolean straight = (top >> 2) - (low >> 2) == 4;
+			if (straight && flush) {
+				return code(STRAIGHT_FLUSH, top);
+			}
+			else if (flush) {
+				return code(FLUSH, top);
+			}
+			else if (straight) {
+				return code(STRAIGHT, top);
+			}
+		}
+		else if (distinct == 2) {
+			if (quads != 0) {
+				int quadTop = Long.numberOfTrailingZeros(quads) + 3;
+				return code(QUAD, quadTop);
+			}
+			// the triple is the rank held three times, its top card decides the FullHouse
+			int topRank = top >> 2;
+			if (Long.bitCount(mask >>> (topRank << 2)) == 3) {
+				return code(FULL_HOUSE, top);
+			}
+			int tripleTop = 63 - Long.numberOfLeadingZeros(mask & (0xFL << (low & ~3)));
+			return code(FULL_HOUSE, tripleTop);
+		}
+		return INVALID;
+	}
+
+	/**
+	 * Packs the classification of a hand from its type and top card.
+	 *
+	 * @param type the type code of the hand
+	 * @param top the ordinal of the top card of the hand
+	 * @return the packed type, strength and top card of the hand
+	 */
+	public static int code(int type, int top) {
+		// flushes are compared by suit first, full houses and quads by the rank of the triple or the four only
+		int strength;
+		if (type == FLUSH) {
+			strength = (top & 3) * 13 + (top >> 2);
+		}
+		else if (type == FULL_HOUSE || type == QUAD) {
+			strength = top >> 2;
+		}
+		else {
+			strength = top;
+		}
+		return (type << 12) | (strength << 6) | top;
+	}
+
+	/**
+	 * Returns the comparison key of a hand. Keys of hands of the same size compare like the hands:
+	 * the size of the hand, then the type, then the strength within the type.
+	 *
+	 * @param type the type code of the hand
+	 * @param top the ordinal of the top card of the hand
+	 * @return the comparison key of the hand
+	 */
+	public static long key(int type, int top) {
+		return ((long) sizeOf(type) << 16) | (code(type, top) >>> 6);
+	}
+
+	/**
+	 * Returns the size of the hands that a comparison key can be compared with.
+	 *
+	 * @param key the comparison key returned by {@link #key(int, int)}
+	 * @return the number of cards in the hand
+	 */
+	public static int sizeOfKey(long key) {
+		return (int) (key >>> 16);
+	}
+
+	/**
+	 * Returns the type of a classification.
+	 *
+	 * @param code the classification returned by {@link #classify(long)}
+	 * @return the type code, {@link #INVALID} if the cards do not make a hand
+	 */
+	public static int typeOf(int code) {
+		return code >>> 12;
+	}
+
+	/**
+	 * Returns the strength of a classification within its type. A larger value beats a smaller one.
+	 *
+	 * @param code the classification returned by {@link #classify(long)}
+	 * @return the strength of the hand within its type
+	 */
+	public static int strengthOf(int code) {
+		return (code >>> 6) & 0x3F;
+	}
+
+	/**
+	 * Returns the ordinal of the top card of a classification.
+	 *
+	 * @param code the classification returned by {@link #classify(long)}
+	 * @return the ordinal of the top card
+	 */
+	public static int topOf(int code) {
+		return code & 0x3F;
+	}
+
+	/**
+	 * Returns the number of cards in a hand of the given type.
+	 *
+	 * @param type the type code
+	 * @return the number of cards, 0 for {@link #INVALID}
+	 */
+	public static int sizeOf(int type) {
+		return type <= TRIPLE ? type : 5;
+	}
+}
@@ -0,0 +1,186 @@
+import java.util.Arrays;
+
+/**
+ * The HandPlanner class splits the cards held by a player into the fewest legal Big Two plays.
+ *
+ * <p>The planner is built once for the cards dealt to a player. It runs a dynamic program over every
+ * subset of those cards, so that the plan of any later holding of the player (a subset of the cards
+ * dealt, as cards are played) is read from the table in constant time. Among the partitions with the
+ * fewest plays, the one leaving the fewest singles is chosen.</p>
+ *
+ * <p>Holdings and plays are card masks, as defined in {@link HandClassifier}.</p>
+ *
+ * @author Liu Yantong
+ */
+public class HandPlanner {
+	/**
+	 * The largest number of cards a planner can be built for.
+	 */
+	public static final int MAX_CARDS = 13;
+
+	// the ordinals of the cards dealt, in ascending order; bit i of a subset stands for ordinals[i]
+	private final int[] ordinals;
+	private final long dealtMask;
+	// cost of the best partition of each subset: number of plays * 16 + number of singles
+	private final short[] cost;
+	// the play of the best partition of each subset that contains its lowest card
+	private final short[] firstPlay;
+
+	/**
+	 * Builds a planner for the cards currently held by a player.
+	 *
+	 * @param player the player
+	 */
+	public HandPlanner(CardGamePlayer player) {
+		this(player.getCardMask());
+	}
+
+	/**
+	 * Builds a planner for the cards of a mask under the standard rules.
+	 *
+	 * @param dealtMask the mask of the cards dealt to the player
+	 * @throws IllegalArgumentException if the mask holds more than {@link #MAX_CARDS} cards
+	 */
+	public HandPlanner(long dealtMask) {
+		this(dealtMask, BigTwoRules.STANDARD);
+	}
+
+	/**
+	 * Builds a planner for the cards of a mask under the specified rules.
+	 *
+	 * @param dealtMask the mask of the cards dealt to the player
+	 * @param rules the rules deciding which plays are valid
+	 * @throws IllegalArgumentException if the mask holds more than {@link #MAX_CARDS} cards
+	 */
+	public HandPlanner(long dealtMask, BigTwoRules rules) {
+		int n = Long.bitCount(dealtMask);
+		if (n > MAX_CARDS) {
+			throw new IllegalArgumentException("Cannot plan a holding of " + n + " cards");
+		}
+		this.dealtMask = dealtMask;
+		this.ordinals = new int[n];
+		int i = 0;
+		for (long m = dealtMask; m != 0; m &= m - 1) {
+			ordinals[i++] = Long.numberOfTrailingZeros(m);
+		}
+
+		// the valid plays, grouped by the position of their lowest card
+		int[][] plays = new int[n][];
+		int[] numOfPlays = new int[n];
+		for (i = 0; i < n; i++) {
+			plays[i] = new int[16];
+		}
+		LegalMoveGenerator generator = new LegalMoveGenerator(rules);
+		generator.reset(dealtMask, 0L, 0L);
+		for (long move = generator.next(); move != 0L; move = generator.next()) {
+			int local = toLocal(move);
+			int low = Integer.numberOfTrailingZeros(local);
+			if (numOfPlays[low] == plays[low].length) {
+				plays[low] = Arrays.copyOf(plays[low], 2 * plays[low].length);
+			}
+			plays[low][numOfPlays[low]++] = local;
+		}
+
+		// every subset is split into a play holding its lowest card and the best split of the rest
+		this.cost = new short[1 << n];
+		this.firstPlay = new short[1 << n];
+		for (int subset = 1; subset < (1 << n); subset++) {
+			int low = Integer.numberOfTrailingZeros(subset);
+			int best = Integer.MAX_VALUE;
+			int bestPlay = 0;
+			for (int j = 0; j < numOfPlays[low]; j++) {
+				int play = plays[low][j];
+				if ((play & subset) == play) {
+					int c = cost[subset ^ play] + (Integer.bitCount(play) == 1 ? 17 : 16);
+					if (c < best) {
+						best = c;
+						bestPlay = play;
+					}
+				}
+			}
+			cost[subset] = (short) best;
+			firstPlay[subset] = (short) bestPlay;
+		}
+	}
+
+	/**
+	 * Returns the mask of the cards the planner was built for.
+	 *
+	 * @return the mask of the cards dealt
+	 */
+	public long getDealtMask() {
+		return dealtMask;
+	}
+
+	/**
+	 * Returns the number of plays of the best partition of a holding.
+	 *
+	 * @param holding the mask of the cards held, a subset of the cards dealt
+	 * @return the fewest plays needed to play all the cards held
+	 */
+	public int getNumOfPlays(long holding) {
+		return cost[toLocal(holding)] >> 4;
+	}
+
+	/**
+	 * Returns the number of singles in the best partition of a holding.
+	 *
+	 * @param holding the mask of the cards held, a subset of the cards dealt
+	 * @return the number of singles left by the best partition
+	 */
+	public int getNumOfSingles(long holding) {
+		return cost[toLocal(holding)] & 0xF;
+	}
+
+	/**
+	 * Returns the best partition of a holding.
+	 *
+	 * @param holding the mask of the cards held, a subset of the cards dealt
+	 * @return the masks of the plays of the best partition, ordered by their lowest card
+	 */
+	public long[] getPlan(long holding) {
+		int subset = toLocal(holding);
+		long[] plan = new long[cost[subset] >> 4];
+		for (int i = 0; subset != 0; i++) {
+			int play = firstPlay[subset];
+			plan[i] = toCards(play);
+			subset ^= play;
+		}
+		return plan;
+	}
+
+	/**
+	 * Returns the play of the best partition of a holding that contains its lowest card.
+	 *
+	 * @param holding the mask of the cards held, a subset of the cards dealt
+	 * @return the mask of the play, or 0 if the holding is empty
+	 */
+	public long getFirstPlay(long holding) {
+		return toCards(firstPlay[toLocal(holding)]);
+	}
+
+	/**
+	 * Converts a card mask into a subset of the cards dealt.
+	 */
+	private int toLocal(long mask) {
+		if ((mask & ~dealtMask) != 0) {
+			throw new IllegalArgumentException("The holding is not a subset of the cards dealt");
+		}
+		int local = 0;
+		for (int i = 0; i < ordinals.length; i++) {
+			local |= (int) ((mask >>> ordinals[i]) & 1L) << i;
+		}
+		return local;
+	}
+
+	/**
+	 * Converts a subset of the cards dealt into a card mask.
+	 */
+	private long toCards(int local) {
+		long mask = 0L;
+		for (; local != 0; local &= local - 1) {
+			mask |= 1L << ordinals[Integer.numberOfTrailingZeros(local)];
+		}
+		return mask;
+	}
+}
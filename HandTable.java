@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The HandTable class looks up the classification of five-card hands in a precomputed table.
+ *
+ * <p>The table holds one entry for each of the 2,598,960 five-card subsets of the deck, indexed by
+ * the combinatorial rank of the subset. Each entry is the classification returned by
+ * {@link HandClassifier#classify(long)}, stored as an unsigned 16-bit value. The table file is
+ * generated by {@link HandTableGenerator} and memory-mapped when this class is first used.
+ * If the file is missing or damaged, a warning is printed once and every lookup falls back to the
+ * {@link HandClassifier}; {@link #getLoadError()} tells why.</p>
+ *
+ * @author Liu Yantong
+ */
+public final class HandTable {
+	/**
+	 * The system property that overrides the location of the table file. An empty value disables the table.
+	 */
+	public static final String PATH_PROPERTY = "bigtwo.handTable";
+
+	/**
+	 * The default location of the table file, relative to the working directory.
+	 */
+	public static final String DEFAULT_PATH = "hands.tbl";
+
+	/**
+	 * The magic number at the start of the table file.
+	 */
+	static final int MAGIC = 0x42325448; // "B2HT"
+
+	/**
+	 * The size in bytes of the header of the table file.
+	 */
+	static final int HEADER_SIZE = 8;
+
+	/**
+	 * The number of five-card subsets of the deck.
+	 */
+	public static final int SIZE = 2598960;
+
+	/**
+	 * BINOMIAL[n][k] is n choose k, for n up to 52 and k up to 5.
+	 */
+	private static final int[][] BINOMIAL = new int[53][6];
+
+	/**
+	 * The mapped table, or null if it could not be loaded.
+	 */
+	private static final ByteBuffer TABLE;
+
+	/**
+	 * Why the table could not be loaded, or null if it was loaded or disabled.
+	 */
+	private static String loadError;
+
+	static {
+		for (int n = 0; n <= 52; n++) {
+			BINOMIAL[n][0] = 1;
+			for (int k = 1; k <= 5 && k <= n; k++) {
+				BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k < n ? BINOMIAL[n - 1][k] : 0);
+			}
+		}
+		TABLE = load(System.getProperty(PATH_PROPERTY, DEFAULT_PATH));
+		if (loadError != null) {
+			System.err.println("Hand table not loaded, falling back to HandClassifier: " + loadError);
+		}
+	}
+
+	private HandTable() {
+	}
+
+	/**
+	 * Maps the table file into memory.
+	 *
+	 * @param path the location of the table file
+	 * @return the mapped table, or null if the table is disabled or the file is missing or damaged, in which
+	 *         case {@link #loadError} tells why
+	 */
+	private static ByteBuffer load(String path) {
+		if (path == null || path.isEmpty()) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+			if (channel.size() != HEADER_SIZE + 2L * SIZE) {
+				loadError = path + ": wrong size " + channel.size();
+				return null;
+			}
+			ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != SIZE) {
+				loadError = path + ": wrong header";
+				return null;
+			}
+			return buffer;
+		}
+		catch (IOException ex) {
+			loadError = path + ": " + ex;
+			return null;
+		}
+	}
+
+	/**
+	 * Returns whether the table file has been mapped.
+	 *
+	 * @return true if lookups are served from the table; false if they fall back to the classifier
+	 */
+	public static boolean isLoaded() {
+		return TABLE != null;
+	}
+
+	/**
+	 * Returns why the table file could not be mapped.
+	 *
+	 * @return a description of the failure, or null if the table was loaded or disabled by an empty
+	 *         {@link #PATH_PROPERTY}
+	 */
+	public static String getLoadError() {
+		return loadError;
+	}
+
+	/**
+	 * Returns the combinatorial rank of a five-card mask, between 0 and {@link #SIZE} - 1.
+	 *
+	 * @param mask a mask holding exactly five cards
+	 * @return the combinatorial rank of the mask
+	 */
+	public static int index(long mask) {
+		int index = 0;
+		for (int k = 1; k <= 5; k++) {
+			index += BINOMIAL[Long.numberOfTrailingZeros(mask)][k];
+			mask &= mask - 1;
+		}
+		return index;
+	}
+
+	/**
+	 * Classifies the cards of a mask, looking five-card masks up in the table.
+	 *
+	 * @param mask the mask of the cards
+	 * @return the same result as {@link HandClassifier#classify(long)}
+	 */
+	public static int classify(long mask) {
+		if (TABLE != null && Long.bitCount(mask) == 5) {
+			return TABLE.getChar(HEADER_SIZE + 2 * index(mask));
+		}
+		return HandClassifier.classify(mask);
+	}
+
+	/**
+	 * Writes a table file.
+	 *
+	 * @param path the location of the table file
+	 * @param entries the classification of each five-card subset, indexed by combinatorial rank
+	 * @throws IOException if the file cannot be written
+	 */
+	static void write(Path path, char[] entries) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + 2 * entries.length);
+		buffer.putInt(MAGIC).putInt(entries.length);
+		for (char entry : entries) {
+			buffer.putChar(entry);
+		}
+		buffer.flip();
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+		}
+	}
+}
@@ -0,0 +1,174 @@
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * The HandTableGenerator class rebuilds the table file used by {@link HandTable}.
+ *
+ * <p>It classifies every five-card subset of the deck in combinatorial order and checks the type,
+ * the top card and the comparison key of each classification against a reference kept in this
+ * class before the table is written. The Hand subclasses classify hands with {@link HandClassifier}
+ * themselves, so the reference does not use them: it sorts the five cards by rank and suit and
+ * compares neighbouring cards, as the Hand subclasses did before the classifier. A table that
+ * disagrees with the rules of the game is never produced.</p>
+ *
+ * @author Liu Yantong
+ */
+public class HandTableGenerator {
+	/**
+	 * The five-card hands in the order of their type codes, starting from Straight.
+	 */
+	private static final String[] FIVE_CARD_TYPES = { "Straight", "Flush", "FullHouse", "Quad", "StraightFlush" };
+
+	/**
+	 * The number of reference strengths of each five-card type.
+	 */
+	private static final int STRENGTHS = 64;
+
+	/**
+	 * Main method to generate the table file.
+	 *
+	 * @param args the location of the table file; the default location of {@link HandTable} is used if no arguments have been supplied
+	 * @throws IOException if the table file cannot be written
+	 */
+	public static void main(String[] args) throws IOException {
+		// the table being replaced must not take part in the check
+		System.setProperty(HandTable.PATH_PROPERTY, "");
+		String path = args.length > 0 ? args[0] : HandTable.DEFAULT_PATH;
+
+		BigTwoCard[] cards = new BigTwoCard[52];
+		for (int ordinal = 0; ordinal < 52; ordinal++) {
+			cards[ordinal] = BigTwoCard.valueOf(ordinal);
+		}
+
+		char[] entries = new char[HandTable.SIZE];
+		int[] counts = new int[HandClassifier.STRAIGHT_FLUSH + 1];
+		// the key of the classifier for each reference strength, -1 until a hand of that strength is seen
+		long[] keys = new long[FIVE_CARD_TYPES.length * STRENGTHS];
+		Arrays.fill(keys, -1L);
+		int[] hand = new int[5];
+		long mask = 0x1FL;
+		for (int i = 0; i < HandTable.SIZE; i++) {
+			if (HandTable.index(mask) != i) {
+				throw new IllegalStateException("Wrong combinatorial rank for mask " + Long.toHexString(mask));
+			}
+			int code = HandClassifier.classify(mask);
+			check(cards, mask, code, hand, keys);
+			entries[i] = (char) code;
+			counts[HandClassifier.typeOf(code)]++;
+
+			// next five-card mask in combinatorial order
+			long lowest = mask & -mask;
+			long ripple = mask + lowest;
+			mask = ripple | (((mask ^ ripple) >>> 2) / lowest);
+		}
+
+		// the keys must order the hands as the reference strengths do
+		long previous = -1L;
+		for (int strength = 0; strength < keys.length; strength++) {
+			if (keys[strength] < 0) {
+				continue;
+			}
+			if (keys[strength] <= previous) {
+				throw new IllegalStateException("Comparison keys out of order at "
+						+ FIVE_CARD_TYPES[strength / STRENGTHS] + " of strength " + strength % STRENGTHS);
+			}
+			previous = keys[strength];
+		}
+
+		HandTable.write(Paths.get(path), entries);
+		System.out.println("Wrote " + HandTable.SIZE + " entries to " + path);
+		System.out.println("Invalid: " + counts[HandClassifier.INVALID]);
+		for (int type = HandClassifier.STRAIGHT; type <= HandClassifier.STRAIGHT_FLUSH; type++) {
+			System.out.println(FIVE_CARD_TYPES[type - HandClassifier.STRAIGHT] + ": " + counts[type]);
+		}
+	}
+
+	/**
+	 * Checks the classification of a five-card mask against the reference, and records the key of the
+	 * classifier for the reference strength of the hand.
+	 */
+	private static void check(BigTwoCard[] cards, long mask, int code, int[] hand, long[] keys) {
+		// the ordinals of the cards, sorted by rank (Three lowest, Two highest) and then by suit
+		int n = 0;
+		for (long m = mask; m != 0; m &= m - 1) {
+			int ordinal = Long.numberOfTrailingZeros(m);
+			int j = n++;
+			while (j > 0 && compare(cards[hand[j - 1]], cards[ordinal]) > 0) {
+				hand[j] = hand[j - 1];
+				j--;
+			}
+			hand[j] = ordinal;
+		}
+		BigTwoCard c1 = cards[hand[0]], c2 = cards[hand[1]], c3 = cards[hand[2]], c4 = cards[hand[3]], c5 = cards[hand[4]];
+
+		boolean straight = value(c2) == value(c1) + 1 && value(c3) == value(c2) + 1 && value(c4) == value(c3) + 1
+				&& value(c5) == value(c4) + 1;
+		boolean flush = c1.getSuit() == c2.getSuit() && c2.getSuit() == c3.getSuit() && c3.getSuit() == c4.getSuit()
+				&& c4.getSuit() == c5.getSuit();
+		int type;
+		int top;
+		int strength;
+		if (straight && flush) {
+			type = HandClassifier.STRAIGHT_FLUSH;
+			top = hand[4];
+			strength = value(c5) * 4 + c5.getSuit();
+		}
+		else if (value(c1) == value(c4) || value(c2) == value(c5)) {
+			type = HandClassifier.QUAD;
+			top = value(c1) == value(c4) ? hand[3] : hand[4];
+			strength = value(cards[top]);
+		}
+		else if (value(c1) == value(c3) && value(c4) == value(c5) || value(c1) == value(c2) && value(c3) == value(c5)) {
+			type = HandClassifier.FULL_HOUSE;
+			top = value(c1) == value(c3) ? hand[2] : hand[4];
+			strength = value(cards[top]);
+		}
+		else if (flush) {
+			type = HandClassifier.FLUSH;
+			top = hand[4];
+			strength = c5.getSuit() * 16 + value(c5);
+		}
+		else if (straight) {
+			type = HandClassifier.STRAIGHT;
+			top = hand[4];
+			strength = value(c5) * 4 + c5.getSuit();
+		}
+		else {
+			type = HandClassifier.INVALID;
+			top = -1;
+			strength = -1;
+		}
+
+		if (HandClassifier.typeOf(code) != type || (type != HandClassifier.INVALID && HandClassifier.topOf(code) != top)) {
+			throw new IllegalStateException("Classification " + Integer.toHexString(code)
+					+ " disagrees with the reference for " + new BigTwoCardList(mask));
+		}
+		if (type == HandClassifier.INVALID) {
+			return;
+		}
+		int index = (type - HandClassifier.STRAIGHT) * STRENGTHS + strength;
+		long key = HandClassifier.key(type, top);
+		if (keys[index] >= 0 && keys[index] != key) {
+			throw new IllegalStateException("Hands of the same strength have different keys: " + new BigTwoCardList(mask));
+		}
+		keys[index] = key;
+	}
+
+	/**
+	 * Returns the value of the rank of a card in the Big Two order: 3 for a Three up to 13 for a King,
+	 * 14 for an Ace and 15 for a Two.
+	 */
+	private static int value(Card card) {
+		int rank = card.getRank();
+		return rank == 0 || rank == 1 ? rank + 14 : rank + 1;
+	}
+
+	/**
+	 * Compares two cards by the value of their rank, then by suit.
+	 */
+	private static int compare(Card card1, Card card2) {
+		int diff = value(card1) - value(card2);
+		return diff != 0 ? diff : card1.getSuit() - card2.getSuit();
+	}
+}
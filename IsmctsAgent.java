@@ -0,0 +1,407 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The IsmctsAgent class chooses its moves by information set Monte Carlo tree search.
+ *
+ * <p>The agent only knows its own cards, the cards played so far and the number of cards held by
+ * each opponent. Every iteration of the search deals the unseen cards at random to the opponents,
+ * in the numbers they hold, walks down the tree among the moves legal in that deal (by UCB, counting
+ * for each move how often it was available), adds one move, plays the game out at random on a
+ * {@link BigTwoState}, and credits the winner along the path.</p>
+ *
+ * <p>The search runs for a fixed wall-clock budget. With more than one thread, each thread grows its
+ * own tree from the same position and the visits of the moves at the root are added up (root
+ * parallelisation). A tree that is not finished by the end of the budget is left out, so a move is
+ * returned within the budget even when the machine is loaded; if no tree is finished, the lowest legal
+ * play is chosen. The number of iterations of the last search is kept to size the budget and the
+ * hardware.</p>
+ *
+ * <p>The search can also be limited to a number of iterations per tree, with or without a budget. Searching
+ * on one thread with no budget and an iteration limit makes the agent deterministic for a given random
+ * number generator, so tournaments between agents can be reproduced exactly.</p>
+ *
+ * @author Liu Yantong
+ */
+public class IsmctsAgent implements BigTwoAgent {
+	/**
+	 * The default budget of a move, in milliseconds.
+	 */
+	public static final long DEFAULT_BUDGET_MILLIS = 100;
+
+	/**
+	 * The exploration constant of UCB.
+	 */
+	private static final double EXPLORATION = 0.7;
+
+	/**
+	 * The smallest part of the budget kept for collecting the trees, in nanoseconds.
+	 */
+	private static final long MIN_MARGIN_NANOS = 1000000L;
+
+	private static final long ALL_CARDS = (1L << 52) - 1;
+
+	private final long budgetNanos;
+	private final long maxIterations;
+	// the part of the budget kept for collecting the trees: an eighth of it, so that a thread that was
+	// descheduled on a loaded machine still finishes in time
+	private final long marginNanos;
+	private final int numOfThreads;
+	private final ExecutorService pool;
+	private volatile long lastIterations;
+	private volatile long lastNanos;
+
+	/**
+	 * Creates an agent searching for {@link #DEFAULT_BUDGET_MILLIS} milliseconds on the thread asking for the move.
+	 */
+	public IsmctsAgent() {
+		this(DEFAULT_BUDGET_MILLIS, 1);
+	}
+
+	/**
+	 * Creates an agent searching for a wall-clock budget.
+	 *
+	 * @param budgetMillis the wall-clock budget of a move, in milliseconds
+	 * @param numOfThreads the number of trees searched in parallel; with one thread, the search runs on
+	 *                     the thread asking for the move
+	 * @throws IllegalArgumentException if the budget or the number of threads is not positive
+	 */
+	public IsmctsAgent(long budgetMillis, int numOfThreads) {
+		this(budgetMillis, numOfThreads, Long.MAX_VALUE);
+	}
+
+	/**
+	 * Creates an agent searching for a wall-clock budget or a number of iterations, whichever comes first.
+	 *
+	 * @param budgetMillis the wall-clock budget of a move, in milliseconds, or 0 for no budget
+	 * @param numOfThreads the number of trees searched in parallel; with one thread, the search runs on
+	 *                     the thread asking for the move
+	 * @param maxIterations the number of iterations of each tree
+	 * @throws IllegalArgumentException if the budget is negative, if there is neither a budget nor an
+	 *                                  iteration limit, or if the number of threads or iterations is not positive
+	 */
+	public IsmctsAgent(long budgetMillis, int numOfThreads, long maxIterations) {
+		if (budgetMillis < 0 || numOfThreads <= 0 || maxIterations <= 0
+				|| (budgetMillis == 0 && maxIterations == Long.MAX_VALUE)) {
+			throw new IllegalArgumentException("Invalid budget, number of threads or number of iterations");
+		}
+		this.budgetNanos = budgetMillis * 1000000L;
+		this.maxIterations = maxIterations;
+		this.marginNanos = Math.max(MIN_MARGIN_NANOS, budgetNanos / 8);
+		this.numOfThreads = numOfThreads;
+		this.pool = numOfThreads == 1 ? null : Executors.newFixedThreadPool(numOfThreads, runnable -> {
+			Thread thread = new Thread(runnable, "ismcts");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Searches the current position for the budget of the agent and chooses the move visited most at the root.
+	 *
+	 * @param view the view of the game from the seat of the player to move
+	 * @param moves the legal plays of the player
+	 * @param random the random number generator the searches are seeded from
+	 * @return the mask of the cards to play, or 0 to pass
+	 */
+	@Override
+	public long chooseMove(BigTwoView view, LegalMoveGenerator moves, SplittableRandom random) {
+		long start = System.nanoTime();
+		long deadline = start + budgetNanos - marginNanos;
+
+		long[] rootMoves = new long[64];
+		int numOfMoves = 0;
+		if (view.canPass()) {
+			rootMoves[numOfMoves++] = 0L;
+		}
+		for (long move = moves.next(); move != 0L; move = moves.next()) {
+			if (numOfMoves == rootMoves.length) {
+				rootMoves = Arrays.copyOf(rootMoves, 2 * rootMoves.length);
+			}
+			rootMoves[numOfMoves++] = move;
+		}
+		moves.restart();
+		if (numOfMoves <= 1) {
+			lastIterations = 0;
+			lastNanos = System.nanoTime() - start;
+			return numOfMoves == 0 ? 0L : rootMoves[0];
+		}
+
+		BigTwoState root = new BigTwoState(view);
+		ArrayList<Search> searches = new ArrayList<Search>();
+		if (pool == null) {
+			Search search = new Search(root, random.split(), deadline, budgetNanos > 0, maxIterations);
+			searches.add(search.call());
+		}
+		else {
+			ArrayList<Future<Search>> futures = new ArrayList<Future<Search>>();
+			for (int i = 0; i < numOfThreads; i++) {
+				futures.add(pool.submit(new Search(root, random.split(), deadline, budgetNanos > 0, maxIterations)));
+			}
+			for (Future<Search> future : futures) {
+				try {
+					if (budgetNanos > 0) {
+						searches.add(future.get(Math.max(0L, deadline + marginNanos / 2 - System.nanoTime()),
+								TimeUnit.NANOSECONDS));
+					}
+					else {
+						searches.add(future.get());
+					}
+				}
+				catch (TimeoutException e) {
+					// a tree that is not finished in time is left out
+					future.cancel(true);
+				}
+				catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					future.cancel(true);
+				}
+				catch (ExecutionException e) {
+					throw new IllegalStateException(e.getCause());
+				}
+			}
+		}
+
+		long[] visits = new long[numOfMoves];
+		long iterations = 0;
+		for (Search search : searches) {
+			iterations += search.iterations;
+			for (Node child : search.root.children) {
+				for (int i = 0; i < numOfMoves; i++) {
+					if (rootMoves[i] == child.move) {
+						visits[i] += child.visits;
+						break;
+					}
+				}
+			}
+		}
+		lastIterations = iterations;
+		lastNanos = System.nanoTime() - start;
+
+		// the lowest play if no tree was finished
+		int best = rootMoves[0] == 0L ? 1 : 0;
+		for (int i = 0; i < numOfMoves; i++) {
+			if (visits[i] > visits[best]) {
+				best = i;
+			}
+		}
+		return rootMoves[best];
+	}
+
+	/**
+	 * Returns the number of iterations of the last search, over all threads.
+	 *
+	 * @return the number of iterations
+	 */
+	public long getLastIterations() {
+		return lastIterations;
+	}
+
+	/**
+	 * Returns the number of iterations per second of the last search, over all threads.
+	 *
+	 * @return the number of iterations per second, 0 if the last move needed no search
+	 */
+	public double getIterationsPerSecond() {
+		long nanos = lastNanos;
+		return nanos == 0 ? 0 : lastIterations * 1e9 / nanos;
+	}
+
+	/**
+	 * Stops the threads of the agent. The agent cannot search with more than one thread afterwards.
+	 */
+	public void shutdown() {
+		if (pool != null) {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * A node of a search tree: the move leading to it and the statistics of that move.
+	 */
+	private static final class Node {
+		private final Node parent;
+		private final long move;
+		// the player who made the move, -1 at the root
+		private final int player;
+		private final ArrayList<Node> children = new ArrayList<Node>();
+		private int visits;
+		private int availability;
+		private int wins;
+
+		Node(Node parent, long move, int player) {
+			this.parent = parent;
+			this.move = move;
+			this.player = player;
+		}
+	}
+
+	/**
+	 * One tree grown from the position of the agent until the deadline or the iteration limit.
+	 */
+	private static final class Search implements Callable<Search> {
+		private final BigTwoState state;
+		private final SplittableRandom random;
+		private final long deadline;
+		private final boolean timed;
+		private final long maxIterations;
+		private final int self;
+		private final Node root = new Node(null, 0L, -1);
+		private final LegalMoveGenerator generator;
+		// the legal moves of the current node, and whether each has a child
+		private long[] legal = new long[64];
+		private boolean[] tried = new boolean[64];
+		// the unseen cards and the number of them held by each player
+		private final int[] unseen = new int[52];
+		private final int[] counts = new int[BigTwoEngine.NUM_OF_PLAYERS];
+		private int numOfUnseen;
+		private long iterations;
+
+		Search(BigTwoState root, SplittableRandom random, long deadline, boolean timed, long maxIterations) {
+			this.state = new BigTwoState(root);
+			this.random = random;
+			this.deadline = deadline;
+			this.timed = timed;
+			this.maxIterations = maxIterations;
+			this.self = root.getCurrentPlayer();
+			this.generator = new LegalMoveGenerator(root.getRules());
+			long hidden = ALL_CARDS & ~root.getPlayed() & ~root.getHolding(self);
+			for (long m = hidden; m != 0; m &= m - 1) {
+				unseen[numOfUnseen++] = Long.numberOfTrailingZeros(m);
+			}
+			for (int i = 0; i < counts.length; i++) {
+				counts[i] = Long.bitCount(root.getHolding(i));
+			}
+		}
+
+		@Override
+		public Search call() {
+			do {
+				determinize();
+				iterate();
+				iterations++;
+			} while (iterations < maxIterations && (!timed || System.nanoTime() - deadline < 0)
+					&& !Thread.currentThread().isInterrupted());
+			return this;
+		}
+
+		/**
+		 * Deals the unseen cards at random to the opponents.
+		 */
+		private void determinize() {
+			for (int i = numOfUnseen - 1; i > 0; i--) {
+				int j = random.nextInt(i + 1);
+				int card = unseen[i];
+				unseen[i] = unseen[j];
+				unseen[j] = card;
+			}
+			int next = 0;
+			for (int player = 0; player < counts.length; player++) {
+				if (player == self) {
+					continue;
+				}
+				long holding = 0L;
+				for (int i = 0; i < counts[player]; i++) {
+					holding |= 1L << unseen[next++];
+				}
+				state.setHolding(player, holding);
+			}
+		}
+
+		/**
+		 * Runs one iteration on the current deal and takes its moves back.
+		 */
+		private void iterate() {
+			Node node = root;
+			// selection and expansion
+			while (!state.isGameOver()) {
+				int numOfLegal = legalMoves(true);
+				Arrays.fill(tried, 0, numOfLegal, false);
+				Node best = null;
+				double bestScore = Double.NEGATIVE_INFINITY;
+				for (Node child : node.children) {
+					int i = Arrays.binarySearch(legal, 0, numOfLegal, child.move);
+					if (i < 0) {
+						continue;
+					}
+					tried[i] = true;
+					child.availability++;
+					double score = (double) child.wins / child.visits
+							+ EXPLORATION * Math.sqrt(Math.log(child.availability) / child.visits);
+					if (score > bestScore) {
+						bestScore = score;
+						best = child;
+					}
+				}
+				int numOfUntried = 0;
+				for (int i = 0; i < numOfLegal; i++) {
+					if (!tried[i]) {
+						legal[numOfUntried++] = legal[i];
+					}
+				}
+				if (numOfUntried > 0) {
+					long move = legal[random.nextInt(numOfUntried)];
+					Node child = new Node(node, move, state.getCurrentPlayer());
+					child.availability = 1;
+					node.children.add(child);
+					state.apply(move);
+					node = child;
+					break;
+				}
+				state.apply(best.move);
+				node = best;
+			}
+
+			// simulation
+			while (!state.isGameOver()) {
+				int numOfLegal = legalMoves(false);
+				state.apply(legal[random.nextInt(numOfLegal)]);
+			}
+
+			// backpropagation
+			int winner = state.getWinner();
+			for (; node != null; node = node.parent) {
+				node.visits++;
+				if (node.player == winner) {
+					node.wins++;
+				}
+			}
+			while (state.getPly() > 0) {
+				state.undo();
+			}
+		}
+
+		/**
+		 * Puts the legal moves of the current position in legal.
+		 *
+		 * @param sorted whether the moves are wanted in ascending order
+		 * @return the number of legal moves
+		 */
+		private int legalMoves(boolean sorted) {
+			int numOfLegal = 0;
+			if (state.canPass()) {
+				legal[numOfLegal++] = 0L;
+			}
+			state.getLegalMoves(generator);
+			for (long move = generator.next(); move != 0L; move = generator.next()) {
+				if (numOfLegal == legal.length) {
+					legal = Arrays.copyOf(legal, 2 * legal.length);
+					tried = new boolean[legal.length];
+				}
+				legal[numOfLegal++] = move;
+			}
+			if (sorted) {
+				Arrays.sort(legal, 0, numOfLegal);
+			}
+			return numOfLegal;
+		}
+	}
+}
@@ -0,0 +1,221 @@
+/**
+ * The LegalMoveGenerator class enumerates the legal plays of a player against the last hand on the table.
+ *
+ * <p>Plays are produced lazily as card masks (see {@link HandClassifier}) by walking the combinations
+ * of the cards held by the player: singles, pairs, triples and five-card hands, in that order.
+ * When the player must beat a hand, only combinations of its size are walked. A generator keeps its
+ * state in primitive fields and can be {@link #reset(long, long, long) reset} to a new position, so
+ * enumerating the plays of a position allocates nothing.</p>
+ *
+ * <p>Passing is not produced as a play; it is legal whenever the player does not lead.</p>
+ *
+ * @author Liu Yantong
+ */
+public class LegalMoveGenerator {
+	/**
+	 * The sizes of the hands of Big Two.
+	 */
+	private static final int[] SIZES = { 1, 2, 3, 5 };
+
+	// the ordinals of the cards held, in ascending order
+	private final int[] ordinals = new int[52];
+	// the positions in ordinals of the cards in the current combination
+	private final int[] idx = new int[5];
+	private final BigTwoRules rules;
+	private int numOfCards;
+	private long lastKey;
+	private long required;
+	private int sizeIdx;
+	private int lastSizeIdx;
+	private boolean started;
+
+	/**
+	 * Creates a generator with no cards to play under the standard rules. Call {@link #reset(long, long, long)} to use it.
+	 */
+	public LegalMoveGenerator() {
+		this(BigTwoRules.STANDARD);
+	}
+
+	/**
+	 * Creates a generator with no cards to play under the specified rules. Call {@link #reset(long, long, long)} to use it.
+	 *
+	 * @param rules the rules plays are classified and compared by
+	 */
+	public LegalMoveGenerator(BigTwoRules rules) {
+		this.rules = rules;
+		reset(0L, 0L, 0L);
+	}
+
+	/**
+	 * Creates a generator for the plays of a player against the last hand on the table under the standard rules.
+	 *
+	 * @param cards the cards held by the player
+	 * @param lastHand the hand to beat, or null if the player leads
+	 * @param required the mask of the cards every play must contain, 0 if none
+	 */
+	public LegalMoveGenerator(CardList cards, Hand lastHand, long required) {
+		this(cards, lastHand, required, BigTwoRules.STANDARD);
+	}
+
+	/**
+	 * Creates a generator for the plays of a player against the last hand on the table under the specified rules.
+	 *
+	 * @param cards the cards held by the player
+	 * @param lastHand the hand to beat, or null if the player leads; it must follow the same rules
+	 * @param required the mask of the cards every play must contain, 0 if none
+	 * @param rules the rules plays are classified and compared by
+	 */
+	public LegalMoveGenerator(CardList cards, Hand lastHand, long required, BigTwoRules rules) {
+		this.rules = rules;
+		reset(HandClassifier.mask(cards), lastHand == null ? 0L : lastHand.getKey(), required);
+	}
+
+	/**
+	 * Get the rules plays are classified and compared by.
+	 *
+	 * @return the rules of this generator
+	 */
+	public BigTwoRules getRules() {
+		return rules;
+	}
+
+	/**
+	 * Restarts the enumeration for a new position.
+	 *
+	 * @param holding the mask of the cards held by the player
+	 * @param lastKey the comparison key of the hand to beat under the rules of this generator (see {@link Hand#getKey()}), or 0 if the player leads
+	 * @param required the mask of the cards every play must contain, 0 if none
+	 */
+	public void reset(long holding, long lastKey, long required) {
+		this.numOfCards = 0;
+		for (long m = holding; m != 0; m &= m - 1) {
+			ordinals[numOfCards++] = Long.numberOfTrailingZeros(m);
+		}
+		this.lastKey = lastKey;
+		this.required = required;
+		if (lastKey == 0L) {
+			this.sizeIdx = 0;
+			this.lastSizeIdx = SIZES.length - 1;
+		}
+		else {
+			int size = HandClassifier.sizeOfKey(lastKey);
+			this.sizeIdx = size == 5 ? 3 : size - 1;
+			this.lastSizeIdx = sizeIdx;
+		}
+		this.started = false;
+	}
+
+	/**
+	 * Returns the next legal play.
+	 *
+	 * @return the mask of the cards of the next legal play, or 0 if there are no more plays
+	 */
+	public long next() {
+		while (sizeIdx <= lastSizeIdx) {
+			int size = SIZES[sizeIdx];
+			if (!started) {
+				if (size > numOfCards) {
+					sizeIdx = lastSizeIdx + 1;
+					break;
+				}
+				for (int i = 0; i < size; i++) {
+					idx[i] = i;
+				}
+				started = true;
+			}
+			else if (!advance(size)) {
+				sizeIdx++;
+				started = false;
+				continue;
+			}
+
+			long move = 0L;
+			for (int i = 0; i < size; i++) {
+				move |= 1L << ordinals[idx[i]];
+			}
+			if (isLegal(move)) {
+				return move;
+			}
+		}
+		return 0L;
+	}
+
+	/**
+	 * Returns whether the position has at least one legal play. The enumeration is restarted.
+	 *
+	 * @return true if the player can play; false if the player can only pass
+	 */
+	public boolean hasMove() {
+		boolean hasMove = next() != 0L;
+		restart();
+		return hasMove;
+	}
+
+	/**
+	 * Restarts the enumeration of the current position.
+	 */
+	public void restart() {
+		if (lastKey == 0L) {
+			sizeIdx = 0;
+		}
+		else {
+			sizeIdx = lastSizeIdx;
+		}
+		started = false;
+	}
+
+	/**
+	 * Moves idx to the next combination of the given size.
+	 */
+	private boolean advance(int size) {
+		int i = size - 1;
+		while (i >= 0 && idx[i] == numOfCards - size + i) {
+			i--;
+		}
+		if (i < 0) {
+			return false;
+		}
+		idx[i]++;
+		for (int j = i + 1; j < size; j++) {
+			idx[j] = idx[j - 1] + 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks a combination against the last hand on the table.
+	 */
+	private boolean isLegal(long move) {
+		if ((move & required) != required) {
+			return false;
+		}
+		int code = rules.classify(move);
+		int type = HandClassifier.typeOf(code);
+		if (type == HandClassifier.INVALID) {
+			return false;
+		}
+		return lastKey == 0L || rules.key(type, HandClassifier.topOf(code)) > lastKey;
+	}
+
+	/**
+	 * Converts a play into the indices of its cards in the list of cards held by a player,
+	 * as expected by {@link BigTwo#makeMove(int, int[])}.
+	 *
+	 * @param cards the cards held by the player
+	 * @param move the mask of the cards of the play
+	 * @return the indices of the cards of the play, or null if the play is empty (a pass)
+	 */
+	public static int[] toCardIdx(CardList cards, long move) {
+		if (move == 0L) {
+			return null;
+		}
+		int[] cardIdx = new int[Long.bitCount(move)];
+		int count = 0;
+		for (int i = 0; i < cards.size() && count < cardIdx.length; i++) {
+			if ((move & (1L << HandClassifier.ordinal(cards.getCard(i)))) != 0) {
+				cardIdx[count++] = i;
+			}
+		}
+		return cardIdx;
+	}
+}
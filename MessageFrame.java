@@ -0,0 +1,121 @@
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.StreamCorruptedException;
+import java.nio.ByteBuffer;
+
+/**
+ * The MessageFrame class encodes the messages of the framed protocol spoken by the selector-based
+ * transport of the server (see {@link NioTransport}).
+ *
+ * <p>A frame is the length of the message as a 4-byte big-endian integer, followed by the message
+ * serialized on its own object stream. Unlike one object stream kept open for a whole connection, every
+ * frame can be read without the frames before it, so a server can read frames from a non-blocking channel
+ * a few bytes at a time, and every message is sent as it is when it is framed.</p>
+ *
+ * @author Liu Yantong
+ */
+public final class MessageFrame {
+	/**
+	 * The number of bytes of the length of a frame.
+	 */
+	public static final int HEADER_LENGTH = 4;
+
+	/**
+	 * The largest message accepted, in bytes. A frame announcing a longer message is a protocol error.
+	 */
+	public static final int MAX_LENGTH = 1 << 16;
+
+	private MessageFrame() {
+	}
+
+	/**
+	 * Frames a message.
+	 *
+	 * @param message the message
+	 * @return a buffer holding the frame, ready to be written
+	 * @throws IOException if the message cannot be serialized or is longer than {@link #MAX_LENGTH}
+	 */
+	public static ByteBuffer encode(GameMessage message) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		bytes.write(new byte[HEADER_LENGTH]);
+		ObjectOutputStream oos = new ObjectOutputStream(bytes);
+		oos.writeObject(message);
+		oos.close();
+		ByteBuffer frame = ByteBuffer.wrap(bytes.toByteArray());
+		int length = frame.remaining() - HEADER_LENGTH;
+		if (length > MAX_LENGTH) {
+			throw new IOException("Message too long: " + length + " bytes");
+		}
+		frame.putInt(0, length);
+		return frame;
+	}
+
+	/**
+	 * Reads the message of a frame whose length has been read.
+	 *
+	 * @param buffer the buffer holding the message, which is consumed
+	 * @param length the length of the message
+	 * @return the message
+	 * @throws IOException if the bytes are not a serialized message
+	 */
+	public static GameMessage decode(ByteBuffer buffer, int length) throws IOException {
+		byte[] bytes = new byte[length];
+		buffer.get(bytes);
+		try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			Object message = ois.readObject();
+			if (!(message instanceof GameMessage)) {
+				throw new StreamCorruptedException("Not a message: " + message);
+			}
+			return (GameMessage) message;
+		}
+		catch (ClassNotFoundException ex) {
+			throw new StreamCorruptedException("Unknown class: " + ex.getMessage());
+		}
+	}
+
+	/**
+	 * Checks the length of a frame read from its header.
+	 *
+	 * @param length the length read
+	 * @return the length
+	 * @throws StreamCorruptedException if the length is negative or larger than {@link #MAX_LENGTH}
+	 */
+	public static int checkLength(int length) throws StreamCorruptedException {
+		if (length < 0 || length > MAX_LENGTH) {
+			throw new StreamCorruptedException("Invalid frame length: " + length);
+		}
+		return length;
+	}
+
+	/**
+	 * Writes a message as a frame to a blocking stream, and flushes the stream.
+	 *
+	 * @param out the stream
+	 * @param message the message
+	 * @throws IOException if the message cannot be serialized or written
+	 */
+	public static void write(OutputStream out, GameMessage message) throws IOException {
+		ByteBuffer frame = encode(message);
+		out.write(frame.array(), frame.arrayOffset(), frame.remaining());
+		out.flush();
+	}
+
+	/**
+	 * Reads a frame from a blocking stream.
+	 *
+	 * @param in the stream
+	 * @return the message of the frame
+	 * @throws IOException if the stream ends or does not hold a valid frame
+	 */
+	public static GameMessage read(DataInputStream in) throws IOException {
+		int length = checkLength(in.readInt());
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return decode(ByteBuffer.wrap(bytes), length);
+	}
+}
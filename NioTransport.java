@@ -0,0 +1,422 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * The NioTransport class serves the connections of a {@link CardGameServer} with a few selector threads
+ * instead of one thread per client.
+ *
+ * <p>The server socket channel is served by the first selector thread, which hands the accepted
+ * connections to the selector threads in turn. Every read and write is non-blocking, and the messages are
+ * framed (see {@link MessageFrame}), so a connection takes no thread and, while idle, no buffer: one process
+ * can hold tens of thousands of connections. Messages are passed to the server as they are by the blocking
+ * transport, so the server handles them the same way.</p>
+ *
+ * <p>A message sent to a client is framed at once and queued, and written by the selector thread of the
+ * client when its socket can take it, so a slow client does not hold up the server. A client that lets more
+ * than {@link #MAX_PENDING_BYTES} pile up is disconnected.</p>
+ *
+ * @author Liu Yantong
+ */
+public class NioTransport implements Closeable {
+	/**
+	 * The number of selector threads used when none is given.
+	 */
+	public static final int DEFAULT_SELECTORS = 2;
+
+	/**
+	 * The largest number of bytes waiting to be written to a client before it is disconnected.
+	 */
+	public static final int MAX_PENDING_BYTES = 1 << 20;
+
+	/**
+	 * The time a rejected connection is kept open for its last message to be read, in milliseconds.
+	 */
+	private static final long REJECT_DELAY_MILLIS = 1000;
+
+	private final CardGameServer server;
+	private final EventLoop[] loops;
+	private ServerSocketChannel serverChannel;
+	// the loop the next accepted connection is handed to
+	private int nextLoop;
+	private volatile boolean running = true;
+
+	/**
+	 * Creates a transport for a server.
+	 *
+	 * @param server the server the messages of the clients are passed to
+	 * @param numOfSelectors the number of selector threads, at least 1
+	 * @throws IOException if a selector cannot be opened
+	 * @throws IllegalArgumentException if the number of selector threads is not positive
+	 */
+	public NioTransport(CardGameServer server, int numOfSelectors) throws IOException {
+		if (numOfSelectors <= 0) {
+			throw new IllegalArgumentException("Invalid number of selectors: " + numOfSelectors);
+		}
+		this.server = server;
+		this.loops = new EventLoop[numOfSelectors];
+		try {
+			for (int i = 0; i < numOfSelectors; i++) {
+				loops[i] = new EventLoop();
+			}
+		}
+		catch (IOException ex) {
+			close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Listens at a port.
+	 *
+	 * @param port the port, or 0 for any free port
+	 * @return the port listened at
+	 * @throws IOException if the port cannot be listened at
+	 */
+	public int bind(int port) throws IOException {
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(new InetSocketAddress(port));
+		serverChannel.configureBlocking(false);
+		serverChannel.register(loops[0].selector, SelectionKey.OP_ACCEPT);
+		return serverChannel.socket().getLocalPort();
+	}
+
+	/**
+	 * Serves the connections until the transport is closed. The first selector thread is the calling thread;
+	 * the others are started as daemon threads.
+	 */
+	public void run() {
+		for (int i = 1; i < loops.length; i++) {
+			Thread thread = new Thread(loops[i], "nio-selector-" + i);
+			thread.setDaemon(true);
+			thread.start();
+		}
+		loops[0].run();
+	}
+
+	/**
+	 * Stops serving the connections and closes the server socket channel and the selectors.
+	 */
+	@Override
+	public void close() {
+		running = false;
+		try {
+			if (serverChannel != null) {
+				serverChannel.close();
+			}
+		}
+		catch (IOException ex) {
+			// closing anyway
+		}
+		for (EventLoop loop : loops) {
+			if (loop != null) {
+				loop.close();
+			}
+		}
+	}
+
+	/**
+	 * Accepts the pending connections and hands them to the selector threads in turn.
+	 */
+	private void accept() throws IOException {
+		SocketChannel channel;
+		while ((channel = serverChannel.accept()) != null) {
+			channel.configureBlocking(false);
+			channel.socket().setTcpNoDelay(true);
+			EventLoop loop = loops[nextLoop];
+			nextLoop = (nextLoop + 1) % loops.length;
+			NioConnection connection = new NioConnection(loop, channel);
+			loop.execute(connection::register);
+		}
+	}
+
+	/**
+	 * A selector thread: waits for the sockets of its connections to be ready and runs the tasks handed to it
+	 * by other threads.
+	 */
+	private class EventLoop implements Runnable {
+		private final Selector selector;
+		private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<Runnable>();
+		// the rejected connections, by the time they are closed at
+		private final ArrayDeque<NioConnection> rejected = new ArrayDeque<NioConnection>();
+
+		EventLoop() throws IOException {
+			this.selector = Selector.open();
+		}
+
+		/**
+		 * Runs a task on this selector thread.
+		 */
+		void execute(Runnable task) {
+			tasks.add(task);
+			selector.wakeup();
+		}
+
+		@Override
+		public void run() {
+			try {
+				while (running) {
+					long timeout = rejected.isEmpty() ? 0L
+							: Math.max(1L, (rejected.peek().closeTime - System.nanoTime()) / 1000000L);
+					selector.select(timeout);
+					for (Runnable task; (task = tasks.poll()) != null;) {
+						task.run();
+					}
+					Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+					while (keys.hasNext()) {
+						SelectionKey key = keys.next();
+						keys.remove();
+						handle(key);
+					}
+					while (!rejected.isEmpty() && rejected.peek().closeTime - System.nanoTime() <= 0) {
+						rejected.poll().close();
+					}
+				}
+			}
+			catch (ClosedSelectorException ex) {
+				// the transport was closed
+			}
+			catch (IOException ex) {
+				server.println("Error in selecting connections: " + ex.getMessage());
+				if (!server.silentMode) ex.printStackTrace();
+			}
+		}
+
+		private void handle(SelectionKey key) {
+			if (!key.isValid()) {
+				return;
+			}
+			if (key.isAcceptable()) {
+				try {
+					accept();
+				}
+				catch (IOException ex) {
+					server.println("Error in accepting a connection: " + ex.getMessage());
+					if (!server.silentMode) ex.printStackTrace();
+				}
+				return;
+			}
+			NioConnection connection = (NioConnection) key.attachment();
+			try {
+				if (key.isReadable()) {
+					connection.read();
+				}
+				if (key.isValid() && key.isWritable()) {
+					connection.flush();
+				}
+			}
+			catch (IOException | RuntimeException ex) {
+				server.println("Error in receiving messages from the client at " + connection.getRemoteAddress());
+				if (!server.silentMode) ex.printStackTrace();
+				connection.close();
+			}
+		}
+
+		void close() {
+			try {
+				selector.close();
+			}
+			catch (IOException ex) {
+				// closing anyway
+			}
+		}
+	}
+
+	/**
+	 * A connection to a client over a non-blocking socket channel, served by one selector thread.
+	 */
+	private class NioConnection implements CardGameServer.Connection {
+		private final EventLoop loop;
+		private final SocketChannel channel;
+		private final SocketAddress remoteAddress;
+		private SelectionKey key;
+		// the bytes read and not yet passed on as messages, null when there are none
+		private ByteBuffer readBuffer;
+		// the frames waiting to be written, guarded by this connection
+		private final ArrayDeque<ByteBuffer> pending = new ArrayDeque<ByteBuffer>();
+		private int pendingBytes;
+		private boolean flushScheduled;
+		// whether the server took the connection, and so receives its messages
+		private boolean accepted;
+		private volatile boolean closed;
+		// when a rejected connection is closed, in System.nanoTime()
+		private long closeTime;
+
+		NioConnection(EventLoop loop, SocketChannel channel) {
+			this.loop = loop;
+			this.channel = channel;
+			this.remoteAddress = channel.socket().getRemoteSocketAddress();
+		}
+
+		/**
+		 * Registers the channel with the selector of its thread and offers the connection to the server.
+		 */
+		void register() {
+			try {
+				key = channel.register(loop.selector, 0, this);
+			}
+			catch (IOException ex) {
+				close();
+				return;
+			}
+			server.addConnection(this);
+		}
+
+		@Override
+		public void open() {
+			// a channel can always queue messages
+		}
+
+		@Override
+		public void receive() {
+			accepted = true;
+			key.interestOps(key.interestOps() | SelectionKey.OP_READ);
+		}
+
+		@Override
+		public void send(CardGameMessage message) throws IOException {
+			if (closed) {
+				throw new IOException("Connection closed");
+			}
+			ByteBuffer frame = MessageFrame.encode(message);
+			boolean schedule;
+			synchronized (this) {
+				if (pendingBytes + frame.remaining() > MAX_PENDING_BYTES) {
+					loop.execute(this::close);
+					throw new IOException("Client too slow: " + pendingBytes + " bytes waiting");
+				}
+				pending.add(frame);
+				pendingBytes += frame.remaining();
+				schedule = !flushScheduled;
+				flushScheduled = true;
+			}
+			if (schedule) {
+				loop.execute(this::flushQuietly);
+			}
+		}
+
+		@Override
+		public void reject(CardGameMessage message) {
+			try {
+				send(message);
+			}
+			catch (IOException ex) {
+				server.println("Error in sending a FULL message to the client at " + remoteAddress);
+				if (!server.silentMode) ex.printStackTrace();
+			}
+			// called on the thread of the connection, from register()
+			closeTime = System.nanoTime() + REJECT_DELAY_MILLIS * 1000000L;
+			loop.rejected.add(this);
+		}
+
+		@Override
+		public SocketAddress getRemoteAddress() {
+			return remoteAddress;
+		}
+
+		/**
+		 * Reads what the client has sent and passes every complete message to the server.
+		 */
+		void read() throws IOException {
+			if (readBuffer == null) {
+				readBuffer = ByteBuffer.allocate(1024);
+			}
+			int n = channel.read(readBuffer);
+			if (n < 0) {
+				close();
+				return;
+			}
+			readBuffer.flip();
+			while (readBuffer.remaining() >= MessageFrame.HEADER_LENGTH) {
+				int length = MessageFrame.checkLength(readBuffer.getInt(readBuffer.position()));
+				int frameLength = MessageFrame.HEADER_LENGTH + length;
+				if (readBuffer.remaining() < frameLength) {
+					if (readBuffer.capacity() < frameLength) {
+						// a larger buffer for the rest of the frame
+						readBuffer = ByteBuffer.allocate(frameLength).put(readBuffer);
+						return;
+					}
+					break;
+				}
+				readBuffer.getInt();
+				GameMessage message = MessageFrame.decode(readBuffer, length);
+				if (!(message instanceof CardGameMessage)) {
+					throw new IOException("Not a card game message: " + message);
+				}
+				if (accepted && !closed) {
+					server.println("Message received from " + remoteAddress);
+					server.parseMessage(this, (CardGameMessage) message);
+				}
+			}
+			// an idle connection keeps no buffer
+			readBuffer = readBuffer.hasRemaining() ? readBuffer.compact() : null;
+		}
+
+		/**
+		 * Writes the frames waiting, as far as the socket takes them, and waits for the socket to be writable
+		 * if some are left.
+		 */
+		void flush() throws IOException {
+			if (closed) {
+				return;
+			}
+			synchronized (this) {
+				flushScheduled = false;
+				while (!pending.isEmpty()) {
+					ByteBuffer frame = pending.peek();
+					pendingBytes -= channel.write(frame);
+					if (frame.hasRemaining()) {
+						break;
+					}
+					pending.poll();
+				}
+				int ops = pending.isEmpty() ? key.interestOps() & ~SelectionKey.OP_WRITE
+						: key.interestOps() | SelectionKey.OP_WRITE;
+				key.interestOps(ops);
+			}
+		}
+
+		private void flushQuietly() {
+			try {
+				flush();
+			}
+			catch (IOException ex) {
+				server.println("Error in sending a message to the client at " + remoteAddress);
+				if (!server.silentMode) ex.printStackTrace();
+				close();
+			}
+		}
+
+		/**
+		 * Closes the channel and, if the server took the connection, tells the server it is lost.
+		 */
+		void close() {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			if (key != null) {
+				key.cancel();
+			}
+			try {
+				channel.close();
+			}
+			catch (IOException ex) {
+				// closing anyway
+			}
+			if (accepted) {
+				server.removeConnection(this);
+			}
+		}
+	}
+}
@@ -16,25 +16,25 @@ public class Pair extends Hand{
 		super(player, cards);
 	}
 	
+	/**
+	 * Constructs a Pair object with the specified player and cards under the specified rules.
+	 * 
+	 * @param player the player who may hold the Pair
+	 * @param cards the list of cards that may make up the Pair
+	 * @param rules the rules the Pair is classified and compared by
+	 */
+	public Pair(CardGamePlayer player, CardList cards, BigTwoRules rules) {
+		super(player, cards, rules);
+	}
+	
 	/**
 	 * Checks if the hand is a valid Pair.
 	 * 
 	 * @return true if the hand is a valid Pair; false otherwise
 	 */
 	public boolean isValid(){
-		if (this.size() != 2) {
-			return false;
-		}
-		else {
-			Card card1 = this.getCard(0);
-			Card card2 = this.getCard(1);
-			if (card1.getRank() != card2.getRank()) {
-				return false;
-			}
-			else {
-				return true;
-			}
-		}
+		int type = HandClassifier.typeOf(this.classify());
+		return type == HandClassifier.PAIR;
 	}
 	
 	/**
@@ -45,4 +45,13 @@ public class Pair extends Hand{
 	public String getType(){
 		return "Pair";
 	}
+	
+	/**
+	 * Get the type code of this hand.
+	 * 
+	 * @return the type code of the hand of cards: {@link HandClassifier#PAIR}
+	 */
+	protected int getTypeCode(){
+		return HandClassifier.PAIR;
+	}
 }
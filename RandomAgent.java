@@ -0,0 +1,36 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * The RandomAgent class plays a legal move chosen uniformly at random, passing being one of the moves
+ * whenever the player may pass. It is the baseline opponent of the simulator.
+ *
+ * @author Liu Yantong
+ */
+public class RandomAgent implements BigTwoAgent {
+	// the legal plays of the current position, reused between moves
+	private long[] plays = new long[64];
+
+	/**
+	 * Chooses a legal move at random.
+	 *
+	 * @param view the view of the game from the seat of the player to move
+	 * @param moves the legal plays of the player
+	 * @param random the random number generator of the game
+	 * @return the mask of the cards to play, or 0 to pass
+	 */
+	@Override
+	public long chooseMove(BigTwoView view, LegalMoveGenerator moves, SplittableRandom random) {
+		int numOfPlays = 0;
+		if (view.canPass()) {
+			plays[numOfPlays++] = 0L;
+		}
+		for (long move = moves.next(); move != 0L; move = moves.next()) {
+			if (numOfPlays == plays.length) {
+				plays = Arrays.copyOf(plays, 2 * plays.length);
+			}
+			plays[numOfPlays++] = move;
+		}
+		return numOfPlays == 0 ? 0L : plays[random.nextInt(numOfPlays)];
+	}
+}
@@ -16,18 +16,25 @@ public class Single extends Hand{
 		super(player, cards);
 	}
 	
+	/**
+	 * Constructs a Single object with the specified player and cards under the specified rules.
+	 * 
+	 * @param player the player who may hold the Single
+	 * @param cards the list of cards that may make up the Single
+	 * @param rules the rules the Single is classified and compared by
+	 */
+	public Single(CardGamePlayer player, CardList cards, BigTwoRules rules) {
+		super(player, cards, rules);
+	}
+	
 	/**
 	 * Checks if the hand is a valid Single.
 	 * 
 	 * @return true if the hand is a valid Single; false otherwise
 	 */
 	public boolean isValid() {
-		if (this.size() == 1) {
-			return true;
-		}
-		else {
-			return false;
-		}
+		int type = HandClassifier.typeOf(this.classify());
+		return type == HandClassifier.SINGLE;
 	}
 	
 	/**
@@ -38,4 +45,13 @@ public class Single extends Hand{
 	public String getType() {
 		return "Single";
 	}
+	
+	/**
+	 * Get the type code of this hand.
+	 * 
+	 * @return the type code of the hand of cards: {@link HandClassifier#SINGLE}
+	 */
+	protected int getTypeCode(){
+		return HandClassifier.SINGLE;
+	}
 }
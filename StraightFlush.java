@@ -1,5 +1,3 @@
-import java.util.ArrayList;
-
 /**
  * The StraightFlush class is used to check the validity of the cards, get the top of the cards and check if the cards beat another hand.
  * It extends the Hand class and overrides some functions based on the rule of StraightFlush.
@@ -17,88 +15,40 @@ public class StraightFlush extends Hand{
 		super(player, cards);
 	}
 	
+	/**
+	 * Constructs a StraightFlush object with the specified player and cards under the specified rules.
+	 * 
+	 * @param player the player who may hold the StraightFlush
+	 * @param cards the list of cards that may make up the StraightFlush
+	 * @param rules the rules the StraightFlush is classified and compared by
+	 */
+	public StraightFlush(CardGamePlayer player, CardList cards, BigTwoRules rules) {
+		super(player, cards, rules);
+	}
+	
 	/**
 	 * Checks if the hand is a valid StraightFlush.
 	 * 
 	 * @return true if the hand is a valid StraightFlush; false otherwise
 	 */
 	public boolean isValid(){
-		if (this.size() != 5) {
-			return false;
-		}
-		else {
-			this.sort();
-			Card card1 = this.getCard(0);
-			Card card2 = this.getCard(1);
-			Card card3 = this.getCard(2);
-			Card card4 = this.getCard(3);
-			Card card5 = this.getCard(4);
-			// Special case
-			if ((card1.getRank() == 10 && card2.getRank() == 11 && card3.getRank() == 12 && card4.getRank() == 0 && card5.getRank() == 1 || 
-				card1.getRank() == 9 && card2.getRank() == 10 && card3.getRank() == 11 && card4.getRank() == 12 && card5.getRank() == 0) &&
-				(card1.getSuit() == card2.getSuit() && card2.getSuit() == card3.getSuit() && card3.getSuit() == card4.getSuit() && 
-				card4.getSuit() == card5.getSuit())) {
-				return true;
-			}
-			else if ((card1.getRank() == card2.getRank()-1 && card2.getRank() == card3.getRank()-1 && card3.getRank() == card4.getRank()-1 && 
-				card4.getRank() == card5.getRank()-1) && (card1.getSuit() == card2.getSuit() && card2.getSuit() == card3.getSuit() && 
-				card3.getSuit() == card4.getSuit() && card4.getSuit() == card5.getSuit())){
-				return true;
-			}
-			else {
-				return false;
-			}
-		}
+		int type = HandClassifier.typeOf(this.classify());
+		return type == HandClassifier.STRAIGHT_FLUSH;
 	}
 	
 	/**
-	 * Determines if the StraightFlush beats the specified hand.
-     *
-     * @param hand the hand to compare against
-     * @return true if this StraightFlush beats the specified hand; false otherwise
+	 * Find the top card of the StraightFlush.
+	 * 
+	 * @return the top card of the StraightFlush, which is the Five of A-2-3-4-5 and the Six of 2-3-4-5-6
+	 *         when the rules allow low straights
 	 */
 	@Override
-	public boolean beats(Hand hand) {
-		if (hand == null || this == null || !this.isValid() || !hand.isValid() || this.size() != hand.size() || hand.size() != 5) {
-			return false;
+	protected Card findTopCard() {
+		if (this.isValid()) {
+			return this.getCardByOrdinal(HandClassifier.topOf(this.classify()));
 		}
 		else {
-			if (this.getType() == hand.getType()) {
-				Card this_tc = this.getTopCard();
-				Card hand_tc = hand.getTopCard();
-				int this_tc_rank = this_tc.getRank();
-				int hand_tc_rank = hand_tc.getRank();
-				if (this_tc_rank == 0 || this_tc_rank == 1) {
-					this_tc_rank += 13;
-				}
-				
-				if (hand_tc_rank == 0 || hand_tc_rank == 1) {
-					hand_tc_rank += 13;
-				}
-				if (this_tc_rank > hand_tc_rank) {
-					return true;
-				}
-				else if (this_tc_rank < hand_tc_rank) {
-					return false;
-				}
-				else {
-					if (this_tc.getSuit() > hand_tc.getSuit()) {
-						return true;
-					}
-					else {
-						return false;
-					}
-				}
-			}
-			else {
-				ArrayList<String> Size5 = new ArrayList<String>();
-				Size5.add("Straight");
-				Size5.add("Flush");
-				Size5.add("FullHouse");
-				Size5.add("Quad");
-				Size5.add("StraightFlush");
-				return Size5.indexOf(this.getType()) > Size5.indexOf(hand.getType());	
-			}
+			return super.findTopCard();
 		}
 	}
 	
@@ -110,4 +60,13 @@ public class StraightFlush extends Hand{
 	public String getType(){
 		return "StraightFlush";
 	}
+	
+	/**
+	 * Get the type code of this hand.
+	 * 
+	 * @return the type code of the hand of cards: {@link HandClassifier#STRAIGHT_FLUSH}
+	 */
+	protected int getTypeCode(){
+		return HandClassifier.STRAIGHT_FLUSH;
+	}
 }
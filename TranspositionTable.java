@@ -0,0 +1,73 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The TranspositionTable class is a bounded hash table from the Zobrist hashes of positions
+ * (see {@link BigTwoState#getHash()}) to what a search found out about them.
+ *
+ * <p>The table has a fixed number of entries, each of two longs in an {@link AtomicLongArray}: the hash
+ * XORed with the data, and the data. A new entry always replaces the old one in its slot. Threads share a
+ * table without locks: an entry torn by two writers no longer matches its hash and reads as a miss.
+ * A datum of 0 is never stored, so 0 means that the position was not found.</p>
+ *
+ * @author Liu Yantong
+ */
+public class TranspositionTable {
+	private final AtomicLongArray entries;
+	private final int mask;
+
+	/**
+	 * Creates an empty table.
+	 *
+	 * @param bits the base 2 logarithm of the number of entries, between 1 and 28; each entry takes 16 bytes
+	 * @throws IllegalArgumentException if the number of entries is out of range
+	 */
+	public TranspositionTable(int bits) {
+		if (bits < 1 || bits > 28) {
+			throw new IllegalArgumentException("Invalid table size: 2^" + bits);
+		}
+		this.entries = new AtomicLongArray(2 << bits);
+		this.mask = (1 << bits) - 1;
+	}
+
+	/**
+	 * Returns the number of entries of this table.
+	 *
+	 * @return the number of entries
+	 */
+	public int size() {
+		return mask + 1;
+	}
+
+	/**
+	 * Looks up a position.
+	 *
+	 * @param hash the hash of the position
+	 * @return the data stored for the position, or 0 if it is not in the table
+	 */
+	public long probe(long hash) {
+		int i = ((int) hash & mask) << 1;
+		long data = entries.get(i + 1);
+		return (entries.get(i) ^ data) == hash ? data : 0L;
+	}
+
+	/**
+	 * Stores the data of a position, replacing the entry of its slot.
+	 *
+	 * @param hash the hash of the position
+	 * @param data the data of the position, which must not be 0
+	 */
+	public void store(long hash, long data) {
+		int i = ((int) hash & mask) << 1;
+		entries.set(i, hash ^ data);
+		entries.set(i + 1, data);
+	}
+
+	/**
+	 * Removes every entry of this table.
+	 */
+	public void clear() {
+		for (int i = 0; i < entries.length(); i++) {
+			entries.set(i, 0L);
+		}
+	}
+}
@@ -0,0 +1,217 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The TrickLog class records the hands played in a game of Big Two as primitive records: the seat of the
+ * player, the mask of the cards (see {@link HandClassifier}) and the comparison key of each hand.
+ *
+ * <p>The records are kept in growable parallel arrays, so a game of up to 52 hands takes a few hundred
+ * bytes and recording a hand allocates nothing once the arrays have grown. The last hand and the first
+ * hand of the current trick are found in constant time. {@link Hand} objects are only built when asked
+ * for by {@link #toHands(List, BigTwoRules)}, for display or replay.</p>
+ *
+ * @author Liu Yantong
+ */
+public class TrickLog {
+	private int[] seats = new int[16];
+	private long[] masks = new long[16];
+	private long[] keys = new long[16];
+	private int size;
+	// the index of the first hand of the current trick
+	private int trickStart;
+
+	/**
+	 * Creates an empty log.
+	 */
+	public TrickLog() {
+	}
+
+	/**
+	 * Creates a copy of a log.
+	 *
+	 * @param log the log to copy
+	 */
+	public TrickLog(TrickLog log) {
+		copyFrom(log);
+	}
+
+	/**
+	 * Replaces the hands of this log by those of another log.
+	 *
+	 * @param log the log to copy
+	 */
+	public void copyFrom(TrickLog log) {
+		if (seats.length < log.size) {
+			seats = new int[log.seats.length];
+			masks = new long[log.seats.length];
+			keys = new long[log.seats.length];
+		}
+		System.arraycopy(log.seats, 0, seats, 0, log.size);
+		System.arraycopy(log.masks, 0, masks, 0, log.size);
+		System.arraycopy(log.keys, 0, keys, 0, log.size);
+		size = log.size;
+		trickStart = log.trickStart;
+	}
+
+	/**
+	 * Records a hand. A hand played by the player of the last hand, or the first hand of the log,
+	 * starts a new trick.
+	 *
+	 * @param seat the index of the player of the hand
+	 * @param mask the mask of the cards of the hand
+	 * @param key the comparison key of the hand (see {@link Hand#getKey()})
+	 */
+	public void add(int seat, long mask, long key) {
+		if (size == seats.length) {
+			seats = Arrays.copyOf(seats, 2 * size);
+			masks = Arrays.copyOf(masks, 2 * size);
+			keys = Arrays.copyOf(keys, 2 * size);
+		}
+		if (size == 0 || seats[size - 1] == seat) {
+			trickStart = size;
+		}
+		seats[size] = seat;
+		masks[size] = mask;
+		keys[size] = key;
+		size++;
+	}
+
+	/**
+	 * Removes every hand from the log.
+	 */
+	public void clear() {
+		size = 0;
+		trickStart = 0;
+	}
+
+	/**
+	 * Returns the number of hands in the log.
+	 *
+	 * @return the number of hands
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks if no hand has been played.
+	 *
+	 * @return true if the log is empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Get the player of a hand.
+	 *
+	 * @param i the index of the hand in the order played
+	 * @return the index of the player of the hand
+	 */
+	public int getSeat(int i) {
+		checkIndex(i);
+		return seats[i];
+	}
+
+	/**
+	 * Get the cards of a hand.
+	 *
+	 * @param i the index of the hand in the order played
+	 * @return the mask of the cards of the hand
+	 */
+	public long getMask(int i) {
+		checkIndex(i);
+		return masks[i];
+	}
+
+	/**
+	 * Get the comparison key of a hand.
+	 *
+	 * @param i the index of the hand in the order played
+	 * @return the key of the hand
+	 */
+	public long getKey(int i) {
+		checkIndex(i);
+		return keys[i];
+	}
+
+	/**
+	 * Get the player of the last hand.
+	 *
+	 * @return the index of the player of the last hand, or -1 if the log is empty
+	 */
+	public int getLastSeat() {
+		return size == 0 ? -1 : seats[size - 1];
+	}
+
+	/**
+	 * Get the cards of the last hand.
+	 *
+	 * @return the mask of the cards of the last hand, or 0 if the log is empty
+	 */
+	public long getLastMask() {
+		return size == 0 ? 0L : masks[size - 1];
+	}
+
+	/**
+	 * Get the comparison key of the last hand.
+	 *
+	 * @return the key of the last hand, or 0 if the log is empty
+	 */
+	public long getLastKey() {
+		return size == 0 ? 0L : keys[size - 1];
+	}
+
+	/**
+	 * Get the index of the first hand of the current trick.
+	 *
+	 * @return the index of the hand that led the current trick, or 0 if the log is empty
+	 */
+	public int getTrickStart() {
+		return trickStart;
+	}
+
+	/**
+	 * Get the player who led the current trick.
+	 *
+	 * @return the index of the player of the first hand of the current trick, or -1 if the log is empty
+	 */
+	public int getTrickLeader() {
+		return size == 0 ? -1 : seats[trickStart];
+	}
+
+	/**
+	 * Builds the hands of the log.
+	 *
+	 * @param players the players of the game, by seat
+	 * @param rules the rules the hands were played by
+	 * @return a new list of the hands in the order played
+	 */
+	public ArrayList<Hand> toHands(List<CardGamePlayer> players, BigTwoRules rules) {
+		ArrayList<Hand> hands = new ArrayList<Hand>(size);
+		for (int i = 0; i < size; i++) {
+			hands.add(toHand(i, players, rules));
+		}
+		return hands;
+	}
+
+	/**
+	 * Builds a hand of the log.
+	 *
+	 * @param i the index of the hand in the order played
+	 * @param players the players of the game, by seat
+	 * @param rules the rules the hand was played by
+	 * @return the hand
+	 */
+	public Hand toHand(int i, List<CardGamePlayer> players, BigTwoRules rules) {
+		checkIndex(i);
+		return BigTwoEngine.composeHand(players.get(seats[i]), new BigTwoCardList(masks[i]), rules);
+	}
+
+	private void checkIndex(int i) {
+		if (i < 0 || i >= size) {
+			throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+		}
+	}
+}
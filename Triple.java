@@ -16,26 +16,25 @@ public class Triple extends Hand{
 		super(player, cards);
 	}
 	
+	/**
+	 * Constructs a Triple object with the specified player and cards under the specified rules.
+	 * 
+	 * @param player the player who may hold the Triple
+	 * @param cards the list of cards that may make up the Triple
+	 * @param rules the rules the Triple is classified and compared by
+	 */
+	public Triple(CardGamePlayer player, CardList cards, BigTwoRules rules) {
+		super(player, cards, rules);
+	}
+	
 	/**
 	 * Checks if the hand is a valid Triple.
 	 * 
 	 * @return true if the hand is a valid Triple; false otherwise
 	 */
 	public boolean isValid(){
-		if (this.size() != 3) {
-			return false;
-		}
-		else {
-			Card card1 = this.getCard(0);
-			Card card2 = this.getCard(1);
-			Card card3 = this.getCard(2);
-			if (card1.getRank() == card2.getRank() && card2.getRank() == card3.getRank()) {
-				return true;
-			}
-			else {
-				return false;
-			}
-		}
+		int type = HandClassifier.typeOf(this.classify());
+		return type == HandClassifier.TRIPLE;
 	}
 	
 	/**
@@ -46,4 +45,13 @@ public class Triple extends Hand{
 	public String getType(){
 		return "Triple";
 	}
+	
+	/**
+	 * Get the type code of this hand.
+	 * 
+	 * @return the type code of the hand of cards: {@link HandClassifier#TRIPLE}
+	 */
+	protected int getTypeCode(){
+		return HandClassifier.TRIPLE;
+	}
 }
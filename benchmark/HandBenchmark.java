@@ -0,0 +1,338 @@
+package bigtwo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The HandBenchmark class holds the JMH benchmarks of the hand evaluation path: composing hands, checking
+ * and comparing them, finding their top cards, sorting card lists and comparing cards.
+ *
+ * <p>Every benchmark reads one input per call from a ring of {@link #SIZE} inputs prepared before the
+ * measurement, so the inputs are neither constant nor predictable by the branch predictor. The hand
+ * benchmarks run on four data sets: random five-card selections, valid hands of every size, invalid
+ * five-card selections, and five-card hands with every five-card type equally likely. The results are
+ * returned to JMH, which keeps their work from being removed.</p>
+ *
+ * <p>JMH needs a benchmark to be in a package, so this class is in the package bigtwo, and the benchmark
+ * module compiles a copy of the sources of the game in that package (see {@code benchmark/build.gradle}).</p>
+ *
+ * <p>Run the suite with the GC profiler, which reports the bytes allocated per operation, from the
+ * project directory so that the hand table is found:</p>
+ * <pre>
+ * gradle :benchmark:jmh
+ * gradle :benchmark:jmh -PjmhArgs="-prof gc composeHand"
+ * </pre>
+ *
+ * @author Liu Yantong
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandBenchmark {
+	/**
+	 * The number of inputs of each data set; a power of two so that the index is wrapped by a mask.
+	 */
+	static final int SIZE = 1 << 12;
+
+	/**
+	 * The five-card masks of each type, indexed by type code.
+	 */
+	private static final long[][] FIVE_CARD_MASKS = fiveCardMasks();
+
+	/**
+	 * The inputs of the benchmarks on one data set.
+	 */
+	@State(Scope.Thread)
+	public static class Hands {
+		/**
+		 * The data set: random five-card selections, valid hands of every type, invalid five-card
+		 * selections, or five-card hands with every type equally likely.
+		 */
+		@Param({ "random", "valid", "invalid", "mixed5" })
+		public String dataSet;
+
+		final CardGamePlayer player = new CardGamePlayer("Benchmark");
+		CardList[] lists;
+		// the hands composed from the lists; invalid selections are Straights, which are never valid for them
+		Hand[] hands;
+		int index;
+
+		/**
+		 * Prepares the inputs of the data set.
+		 */
+		@Setup
+		public void setUp() {
+			Random random = new Random(42);
+			lists = new CardList[SIZE];
+			hands = new Hand[SIZE];
+			for (int i = 0; i < SIZE; i++) {
+				lists[i] = toList(mask(dataSet, random), random);
+				Hand hand = BigTwo.composeHand(player, lists[i]);
+				hands[i] = hand != null ? hand : new Straight(player, lists[i]);
+			}
+		}
+
+		CardList nextList() {
+			return lists[index++ & (SIZE - 1)];
+		}
+	}
+
+	/**
+	 * The inputs of the benchmarks of one Hand subclass on one data set.
+	 */
+	@State(Scope.Thread)
+	public static class TypedHands {
+		/**
+		 * The Hand subclass checked.
+		 */
+		@Param({ "Single", "Pair", "Triple", "Straight", "Flush", "FullHouse", "Quad", "StraightFlush" })
+		public String handType;
+
+		Hand[] hands;
+		int index;
+
+		/**
+		 * Builds a hand of the subclass from every input of the data set.
+		 *
+		 * @param inputs the inputs of the data set
+		 */
+		@Setup
+		public void setUp(Hands inputs) {
+			hands = new Hand[SIZE];
+			for (int i = 0; i < SIZE; i++) {
+				hands[i] = newHand(handType, inputs.player, inputs.lists[i]);
+			}
+		}
+
+		Hand next() {
+			return hands[index++ & (SIZE - 1)];
+		}
+	}
+
+	/**
+	 * The inputs of the card benchmarks: random deals of 13 cards and random pairs of cards.
+	 */
+	@State(Scope.Thread)
+	public static class Cards {
+		CardList[] deals;
+		BigTwoCard[] cards;
+		final CardList scratch = new CardList();
+		int index;
+
+		/**
+		 * Prepares the deals and the cards.
+		 */
+		@Setup
+		public void setUp() {
+			Random random = new Random(42);
+			deals = new CardList[SIZE];
+			cards = new BigTwoCard[2 * SIZE];
+			for (int i = 0; i < SIZE; i++) {
+				deals[i] = toList(randomMask(13, random), random);
+				cards[2 * i] = BigTwoCard.valueOf(random.nextInt(52));
+				cards[2 * i + 1] = BigTwoCard.valueOf(random.nextInt(52));
+			}
+		}
+	}
+
+	/**
+	 * Composes a hand from the cards chosen.
+	 *
+	 * @param inputs the inputs of the data set
+	 * @return the hand, or null if the cards make none
+	 */
+	@Benchmark
+	public Hand composeHand(Hands inputs) {
+		return BigTwo.composeHand(inputs.player, inputs.nextList());
+	}
+
+	/**
+	 * Checks if the cards make a hand of one subclass.
+	 *
+	 * @param inputs the hands of the subclass
+	 * @return true if the hand is valid
+	 */
+	@Benchmark
+	public boolean isValid(TypedHands inputs) {
+		return inputs.next().isValid();
+	}
+
+	/**
+	 * Finds the top card of a hand of one subclass.
+	 *
+	 * @param inputs the hands of the subclass
+	 * @return the top card
+	 */
+	@Benchmark
+	public Card getTopCard(TypedHands inputs) {
+		return inputs.next().getTopCard();
+	}
+
+	/**
+	 * Compares a hand with the next one.
+	 *
+	 * @param inputs the inputs of the data set
+	 * @return true if the hand beats the next one
+	 */
+	@Benchmark
+	public boolean beats(Hands inputs) {
+		int i = inputs.index++;
+		return inputs.hands[i & (SIZE - 1)].beats(inputs.hands[(i + 1) & (SIZE - 1)]);
+	}
+
+	/**
+	 * Refills a list with a deal of 13 cards in a random order and sorts it.
+	 *
+	 * @param inputs the deals
+	 * @return the sorted list
+	 */
+	@Benchmark
+	public CardList sort(Cards inputs) {
+		CardList deal = inputs.deals[inputs.index++ & (SIZE - 1)];
+		CardList scratch = inputs.scratch;
+		scratch.removeAllCards();
+		for (int j = 0; j < deal.size(); j++) {
+			scratch.addCard(deal.getCard(j));
+		}
+		scratch.sort();
+		return scratch;
+	}
+
+	/**
+	 * Compares two cards.
+	 *
+	 * @param inputs the cards
+	 * @return the result of the comparison
+	 */
+	@Benchmark
+	public int compareTo(Cards inputs) {
+		int j = (2 * inputs.index++) & (2 * SIZE - 1);
+		return inputs.cards[j].compareTo(inputs.cards[j + 1]);
+	}
+
+	/**
+	 * Sorts every five-card mask by its type.
+	 */
+	private static long[][] fiveCardMasks() {
+		int[] counts = new int[HandClassifier.STRAIGHT_FLUSH + 1];
+		long[] all = new long[HandTable.SIZE];
+		long mask = 0x1FL;
+		for (int i = 0; i < HandTable.SIZE; i++) {
+			all[i] = mask;
+			counts[HandClassifier.typeOf(HandClassifier.classify(mask))]++;
+			long lowest = mask & -mask;
+			long ripple = mask + lowest;
+			mask = ripple | (((mask ^ ripple) >>> 2) / lowest);
+		}
+		long[][] masks = new long[counts.length][];
+		for (int type = 0; type < masks.length; type++) {
+			masks[type] = new long[counts[type]];
+			counts[type] = 0;
+		}
+		for (long m : all) {
+			int type = HandClassifier.typeOf(HandClassifier.classify(m));
+			masks[type][counts[type]++] = m;
+		}
+		return masks;
+	}
+
+	/**
+	 * Returns a random input of a data set.
+	 */
+	private static long mask(String dataSet, Random random) {
+		switch (dataSet) {
+		case "random":
+			return randomMask(5, random);
+		case "valid":
+			// every type, including the hands of one to three cards, equally likely
+			int type = HandClassifier.SINGLE + random.nextInt(HandClassifier.STRAIGHT_FLUSH);
+			return type < HandClassifier.STRAIGHT ? randomOfRank(type, random) : pick(FIVE_CARD_MASKS[type], random);
+		case "invalid":
+			return pick(FIVE_CARD_MASKS[HandClassifier.INVALID], random);
+		default:
+			return pick(FIVE_CARD_MASKS[HandClassifier.STRAIGHT + random.nextInt(5)], random);
+		}
+	}
+
+	/**
+	 * Returns a hand of the named subclass holding the cards.
+	 */
+	private static Hand newHand(String type, CardGamePlayer player, CardList cards) {
+		switch (type) {
+		case "Single":
+			return new Single(player, cards);
+		case "Pair":
+			return new Pair(player, cards);
+		case "Triple":
+			return new Triple(player, cards);
+		case "Straight":
+			return new Straight(player, cards);
+		case "Flush":
+			return new Flush(player, cards);
+		case "FullHouse":
+			return new FullHouse(player, cards);
+		case "Quad":
+			return new Quad(player, cards);
+		default:
+			return new StraightFlush(player, cards);
+		}
+	}
+
+	/**
+	 * Returns a random mask of the given number of cards.
+	 */
+	private static long randomMask(int numOfCards, Random random) {
+		long mask = 0L;
+		while (Long.bitCount(mask) < numOfCards) {
+			mask |= 1L << random.nextInt(52);
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns a random mask of the given number of cards of one rank.
+	 */
+	private static long randomOfRank(int numOfCards, Random random) {
+		long nibble = 0L;
+		while (Long.bitCount(nibble) < numOfCards) {
+			nibble |= 1L << random.nextInt(4);
+		}
+		return nibble << (4 * random.nextInt(13));
+	}
+
+	private static long pick(long[] masks, Random random) {
+		return masks[random.nextInt(masks.length)];
+	}
+
+	/**
+	 * Returns the cards of a mask in a random order.
+	 */
+	private static CardList toList(long mask, Random random) {
+		ArrayList<BigTwoCard> cards = new ArrayList<BigTwoCard>();
+		for (long m = mask; m != 0; m &= m - 1) {
+			cards.add(BigTwoCard.valueOf(Long.numberOfTrailingZeros(m)));
+		}
+		Collections.shuffle(cards, random);
+		CardList list = new CardList();
+		for (BigTwoCard card : cards) {
+			list.addCard(card);
+		}
+		return list;
+	}
+}